@@ -2,18 +2,36 @@ package Dx_ET_Trade.ET_Trade.Controller;
 import Dx_ET_Trade.ET_Trade.dto.*;
 import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
 import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.repository.BusinessSearchRepository;
 import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
-import Dx_ET_Trade.ET_Trade.service.GovApiClientService;
+import Dx_ET_Trade.ET_Trade.repository.RenewalStatusRepository;
+import Dx_ET_Trade.ET_Trade.service.BatchSyncService;
+import Dx_ET_Trade.ET_Trade.service.GovApiClient;
+import Dx_ET_Trade.ET_Trade.service.GovFetchContext;
+import Dx_ET_Trade.ET_Trade.service.LicenseRenewalService;
 import Dx_ET_Trade.ET_Trade.service.SyncService;
 import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,26 +39,55 @@ import java.util.Optional;
 @RequestMapping("/api/business")
 public class BusinessController {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     @Autowired
     private final SyncService syncService;
 
     @Autowired
-    private final GovApiClientService govApiClientService;
+    private final GovApiClient govApiClient;
 
     @Autowired
     private final CompanyCustomerRepository companyCustomerRepository;
 
-    public BusinessController(SyncService syncService, GovApiClientService govApiClientService, CompanyCustomerRepository companyCustomerRepository) {
+    @Autowired
+    private final BatchSyncService batchSyncService;
+
+    @Autowired
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    private final BusinessSearchRepository businessSearchRepository;
+
+    @Autowired
+    private final RenewalStatusRepository renewalStatusRepository;
+
+    @Autowired
+    private final LicenseRenewalService licenseRenewalService;
+
+    public BusinessController(SyncService syncService, GovApiClient govApiClient, CompanyCustomerRepository companyCustomerRepository,
+                              BatchSyncService batchSyncService, ObjectMapper objectMapper,
+                              BusinessSearchRepository businessSearchRepository,
+                              RenewalStatusRepository renewalStatusRepository,
+                              LicenseRenewalService licenseRenewalService) {
         this.syncService = syncService;
-        this.govApiClientService = govApiClientService;
+        this.govApiClient = govApiClient;
         this.companyCustomerRepository = companyCustomerRepository;
+        this.batchSyncService = batchSyncService;
+        this.objectMapper = objectMapper;
+        this.businessSearchRepository = businessSearchRepository;
+        this.renewalStatusRepository = renewalStatusRepository;
+        this.licenseRenewalService = licenseRenewalService;
     }
 
     @GetMapping("/sync/{tin}")
     public ResponseEntity<?> syncBusinessByTin(@PathVariable String tin) {
         try {
+            // Shared by the controller and the sync so each gov document is fetched once
+            GovFetchContext fetchContext = new GovFetchContext(govApiClient);
+
             // First, try to get registration info from government
-            GovRegistrationInfoDto govInfo = govApiClientService.getRegistrationInfoByTin(tin);
+            GovRegistrationInfoDto govInfo = fetchContext.getRegistrationInfoByTin(tin);
             if (govInfo == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ErrorResponse(
@@ -51,11 +98,10 @@ public class BusinessController {
             }
 
             // Check if customer exists in company database
-            Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
-            boolean isUpdated = existingCustomerOpt.isPresent();
+            boolean isUpdated = companyCustomerRepository.existsByTin(tin);
 
             // Then sync with our database
-            SyncResponseDto syncResponse = syncService.syncCustomerData(tin);
+            SyncResponseDto syncResponse = syncService.syncCustomerData(tin, fetchContext);
 
             // Create combined response
             RegistrationResponseDto response = new RegistrationResponseDto(
@@ -68,6 +114,8 @@ public class BusinessController {
 
 
             
+        } catch (OptimisticLockingFailureException e) {
+            return handleVersionConflict(e);
         } catch (Syncexception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse(
@@ -85,17 +133,75 @@ public class BusinessController {
         }
     }
 
+    /**
+     * Syncs a batch of TINs given as a JSON array. Streams back one NDJSON line
+     * per TIN ({@link BatchSyncResultDto}) as each sync completes.
+     */
+    @PostMapping(value = "/sync/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> syncBusinessBatch(@RequestBody List<String> tins) {
+        return streamBatch(tins);
+    }
+
+    /**
+     * Same as {@link #syncBusinessBatch(List)} for a newline-delimited list of TINs.
+     */
+    @PostMapping(value = "/sync/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> syncBusinessBatchLines(InputStream body) throws IOException {
+        List<String> tins = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Accept bare TINs as well as JSON strings ("0012345678")
+                String tin = line.trim().replace("\"", "");
+                if (!tin.isEmpty()) {
+                    tins.add(tin);
+                }
+            }
+        }
+        return streamBatch(tins);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamBatch(List<String> tins) {
+        StreamingResponseBody stream = outputStream -> {
+            try {
+                batchSyncService.syncAll(tins.iterator(), result -> writeLine(outputStream, result, true));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (UncheckedIOException e) {
+                // Client went away; in-flight syncs still finish and are saved
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
+
+    // Batch results are flushed as they complete; query rows go out as the response buffer fills
+    private void writeLine(OutputStream outputStream, Object line, boolean flush) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(line));
+            outputStream.write('\n');
+            if (flush) {
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @GetMapping("/government/registration/{tin}")
     public ResponseEntity<?> getGovernmentRegistrationInfo(@PathVariable String tin) {
         try {
-            GovRegistrationInfoDto info = govApiClientService.getRegistrationInfoByTin(tin);
+            GovRegistrationInfoDto info = govApiClient.getRegistrationInfoByTin(tin);
             if (info == null) {
                 return ResponseEntity.notFound().build();
             }
 
             // Check if customer exists in company database
-            Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
-            boolean isUpdated = existingCustomerOpt.isPresent();
+            boolean isUpdated = companyCustomerRepository.existsByTin(tin);
 
             // Create response
             RegistrationResponseDto response = new RegistrationResponseDto(
@@ -121,34 +227,28 @@ public class BusinessController {
             @RequestParam String tin,
             @RequestParam(defaultValue = "en") String lang) {
         try {
+            GovFetchContext fetchContext = new GovFetchContext(govApiClient);
+
             // First try to get from company database
-            Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
-            if (existingCustomerOpt.isPresent()) {
-                CompanyCustomer customer = existingCustomerOpt.get();
-                Optional<CompanyBusiness> existingBusinessOpt = customer.getBusinesses().stream()
-                        .filter(b -> licenseNo.equals(b.getLicenceNumber()))
-                        .findFirst();
-
-                if (existingBusinessOpt.isPresent()) {
-                    // If business exists in company DB, update it with government data
-                    SyncResponseDto syncResponse = syncService.updateBusinessDetails(licenseNo, tin, lang);
-                    
-                    // Get the updated business details
-                    GovBusinessDetailDto businessDetail = govApiClientService.getBusinessByLicenseNo(licenseNo, tin, lang);
-                    
-                    // Create combined response
-                    BusinessDetailResponseDto response = new BusinessDetailResponseDto(
-                        syncResponse,
-                        businessDetail,
-                        true
-                    );
-                    
-                    return ResponseEntity.ok(response);
-                }
+            if (companyCustomerRepository.existsBusinessByTinAndLicence(tin, licenseNo)) {
+                // If business exists in company DB, update it with government data
+                SyncResponseDto syncResponse = syncService.updateBusinessDetails(licenseNo, tin, lang, fetchContext);
+                
+                // Get the updated business details (already fetched by the update)
+                GovBusinessDetailDto businessDetail = fetchContext.getBusinessByLicenseNo(licenseNo, tin, lang);
+                
+                // Create combined response
+                BusinessDetailResponseDto response = new BusinessDetailResponseDto(
+                    syncResponse,
+                    businessDetail,
+                    true
+                );
+                
+                return ResponseEntity.ok(response);
             }
 
             // If not found in company DB or update failed, get from government API
-            GovBusinessDetailDto detail = govApiClientService.getBusinessByLicenseNo(licenseNo, tin, lang);
+            GovBusinessDetailDto detail = fetchContext.getBusinessByLicenseNo(licenseNo, tin, lang);
             if (detail == null) {
                 return ResponseEntity.notFound().build();
             }
@@ -161,6 +261,8 @@ public class BusinessController {
             );
             
             return ResponseEntity.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            return handleVersionConflict(e);
         } catch (Syncexception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse(
@@ -178,33 +280,78 @@ public class BusinessController {
         }
     }
 
-    @GetMapping("/renewal-status")
-    public ResponseEntity<List<BusinessResponseDto>> getBusinessesNeedingRenewal() {
-        // This would need to be implemented in your service layer
-        // Currently returning empty list as placeholder
-        return ResponseEntity.ok(List.of());
+    /**
+     * Streams, as NDJSON, every business whose license has expired or expires
+     * within {@code days}, oldest expiry first. Pass a line's Cursor as
+     * {@code after} (with an optional {@code limit}) to page through the set.
+     */
+    @GetMapping(value = "/renewal-status", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getBusinessesNeedingRenewal(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) Integer subGroupCode,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (days < 0) {
+            throw new Syncexception("days must not be negative");
+        }
+        if (limit != null && limit < 1) {
+            throw new Syncexception("limit must be positive");
+        }
+        LocalDate cutoff = LocalDate.now().plusDays(days);
+        RenewalStatusRepository.Cursor cursor = after != null ? RenewalStatusRepository.Cursor.parse(after) : null;
+
+        StreamingResponseBody stream = outputStream -> {
+            try {
+                renewalStatusRepository.streamDueBy(cutoff, region, subGroupCode, cursor, limit,
+                        row -> writeLine(outputStream, row, false));
+            } catch (UncheckedIOException e) {
+                // Client went away; the query's transaction is rolled back and the cursor closed
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
     }
 
+    /**
+     * Renews one license to {@code renewedTo} (yyyy-MM-dd). Send an
+     * Idempotency-Key header to make retries of the POST safe; pass {@code tin}
+     * when the licence number is not unique.
+     */
     @PostMapping("/renew/{licenseNo}")
     public ResponseEntity<BusinessResponseDto> renewBusinessLicense(
             @PathVariable String licenseNo,
-            @RequestParam String renewedTo) {
-        // This would need to be implemented in your service layer
-        // Currently returning placeholder response
-        BusinessResponseDto response = new BusinessResponseDto();
-        response.setLicenceNumber(licenseNo);
-        response.setRenewedTo(LocalDate.parse(renewedTo));
-        return ResponseEntity.ok(response);
+            @RequestParam String renewedTo,
+            @RequestParam(required = false) String tin,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        LocalDate renewedToDate;
+        try {
+            renewedToDate = LocalDate.parse(renewedTo);
+        } catch (DateTimeParseException e) {
+            throw new Syncexception("renewedTo must be a date (yyyy-MM-dd): " + renewedTo);
+        }
+        return ResponseEntity.ok(licenseRenewalService.renew(licenseNo, tin, renewedToDate, idempotencyKey));
     }
 
+    // Keyset-paged: pass the previous page's NextCursor as "after"
     @GetMapping("/search")
-    public ResponseEntity<List<BusinessResponseDto>> searchBusinesses(
+    public ResponseEntity<BusinessSearchPageDto> searchBusinesses(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String tin,
-            @RequestParam(required = false) String licenseNo) {
-        // This would need to be implemented in your service layer
-        // Currently returning empty list as placeholder
-        return ResponseEntity.ok(List.of());
+            @RequestParam(required = false) String licenseNo,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (isBlank(query) && isBlank(tin) && isBlank(licenseNo)) {
+            throw new Syncexception("At least one of query, tin or licenseNo is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok(businessSearchRepository.search(query, tin, licenseNo, after, pageSize));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     @ExceptionHandler(Syncexception.class)
@@ -216,6 +363,16 @@ public class BusinessController {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // Takes precedence over the catch-all below: a conflict that outlasted the retries is a 409
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(OptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "The record was changed concurrently, please retry",
+                System.currentTimeMillis());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,52 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+import Dx_ET_Trade.ET_Trade.service.PhotoStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/business/photos")
+public class PhotoController {
+
+    @Autowired
+    private final PhotoStore photoStore;
+
+    public PhotoController(PhotoStore photoStore) {
+        this.photoStore = photoStore;
+    }
+
+    // Photos are addressed by content hash, so a response never changes and can be cached forever
+    @GetMapping("/{hash}")
+    public ResponseEntity<byte[]> getPhoto(@PathVariable String hash) {
+        return photoStore.find(hash)
+                .map(photo -> {
+                    byte[] image;
+                    try {
+                        image = Base64.getMimeDecoder().decode(photo.getData());
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.unprocessableEntity().<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .contentType(mediaType(image))
+                            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                            .eTag(hash)
+                            .body(image);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static MediaType mediaType(byte[] image) {
+        if (image.length > 2 && (image[0] & 0xFF) == 0xFF && (image[1] & 0xFF) == 0xD8) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (image.length > 4 && (image[0] & 0xFF) == 0x89 && image[1] == 'P' && image[2] == 'N' && image[3] == 'G') {
+            return MediaType.IMAGE_PNG;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,36 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+import Dx_ET_Trade.ET_Trade.dto.SyncJobDto;
+import Dx_ET_Trade.ET_Trade.service.SyncJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/business/jobs")
+public class SyncJobController {
+
+    @Autowired
+    private final SyncJobService syncJobService;
+
+    public SyncJobController(SyncJobService syncJobService) {
+        this.syncJobService = syncJobService;
+    }
+
+    // Starts an asynchronous sync; poll the returned Location for progress and result
+    @PostMapping("/sync/{tin}")
+    public ResponseEntity<SyncJobDto> submitSyncJob(@PathVariable String tin) {
+        SyncJobDto job = syncJobService.submit(tin);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/business/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SyncJobDto> getSyncJob(@PathVariable String id) {
+        return syncJobService.findJob(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
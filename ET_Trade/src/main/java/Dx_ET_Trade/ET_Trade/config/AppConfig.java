@@ -1,13 +1,165 @@
 package Dx_ET_Trade.ET_Trade.config;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.util.Iterator;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties({GovApiHttpProperties.class, GovApiResilienceProperties.class})
 public class AppConfig {
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient govApiHttpClient, GovApiHttpProperties properties) {
+        return new RestTemplate(new EndpointAwareRequestFactory(govApiHttpClient, properties));
+    }
+
+    // Pooled keep-alive client for the government API, closed with the context
+    @Bean
+    public CloseableHttpClient govApiHttpClient(GovApiHttpProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnectionsTotal())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                        .build())
+                .build();
+
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    // Honour the server's Keep-Alive: timeout=N, otherwise use our default
+                    Iterator<HeaderElement> elements = MessageSupport.iterate(response, "Keep-Alive");
+                    while (elements.hasNext()) {
+                        HeaderElement element = elements.next();
+                        if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                            try {
+                                return TimeValue.ofSeconds(Long.parseLong(element.getValue()));
+                            } catch (NumberFormatException ignored) {
+                                // fall through to the default
+                            }
+                        }
+                    }
+                    return TimeValue.of(properties.getKeepAlive());
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()));
+        if (!properties.isCompression()) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    // Shared pool for outbound government API calls fanned out during a sync
+    @Bean(name = "govApiExecutor")
+    public ThreadPoolTaskExecutor govApiExecutor(
+            @Value("${gov.api.fetch.pool-size:16}") int poolSize,
+            @Value("${gov.api.fetch.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("gov-api-");
+        // When the pool and queue are full a fetch is rejected, not run on the syncing (request) thread:
+        // BusinessDetailFetcher stores that license from basic info and the next sync fetches it again
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs the individual syncs of a batch; sync.batch.parallelism bounds the in-flight work of one batch,
+    // the queue bounds what concurrent batches can pile up (a rejected TIN is reported as 503 in its batch)
+    @Bean(name = "syncBatchExecutor")
+    public ThreadPoolTaskExecutor syncBatchExecutor(
+            @Value("${sync.batch.parallelism:8}") int parallelism,
+            @Value("${sync.batch.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sync-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    // Worker pool for asynchronous sync jobs; queued jobs are also persisted
+    @Bean(name = "syncJobExecutor")
+    public ThreadPoolTaskExecutor syncJobExecutor(@Value("${sync.jobs.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("sync-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Boot only auto-configures this when no other Executor bean exists; used for MVC async / streaming
+    // responses. Built from Boot's builder, so spring.task.execution.* still configures it.
+    @Bean(name = "applicationTaskExecutor")
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Applies the {@code gov.api.http.endpoints.*} timeouts of the endpoint whose
+     * path the request URI contains; other requests use the client defaults.
+     */
+    static class EndpointAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+        private final GovApiHttpProperties properties;
+
+        EndpointAwareRequestFactory(CloseableHttpClient httpClient, GovApiHttpProperties properties) {
+            super(httpClient);
+            this.properties = properties;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation") // per-request connect timeout, the pool only supports per-route
+        protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+            for (GovApiHttpProperties.Endpoint endpoint : properties.getEndpoints().values()) {
+                if (endpoint.getPath() == null || uri.getPath() == null || !uri.getPath().contains(endpoint.getPath())) {
+                    continue;
+                }
+                RequestConfig.Builder config = RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setConnectTimeout(Timeout.of(endpoint.getConnectTimeout() != null ?
+                                endpoint.getConnectTimeout() : properties.getConnectTimeout()))
+                        .setResponseTimeout(Timeout.of(endpoint.getReadTimeout() != null ?
+                                endpoint.getReadTimeout() : properties.getReadTimeout()));
+                HttpClientContext context = HttpClientContext.create();
+                context.setRequestConfig(config.build());
+                return context;
+            }
+            return null;
+        }
     }
 }
 
@@ -0,0 +1,42 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outbound HTTP settings for the government API ({@code gov.api.http.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "gov.api.http")
+public class GovApiHttpProperties {
+    // Connection pool
+    private int maxConnectionsTotal = 100;
+    private int maxConnectionsPerRoute = 20;
+    // How long a request may wait for a pooled connection
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+    // Keep-alive used when the server does not send a Keep-Alive header
+    private Duration keepAlive = Duration.ofMinutes(1);
+    // Idle connections are closed by a background evictor after this long
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Duration timeToLive = Duration.ofMinutes(10);
+    // Send Accept-Encoding: gzip, deflate and decode compressed responses
+    private boolean compression = true;
+
+    // Defaults for endpoints without their own entry
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // Per-endpoint overrides, matched on the request path
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Endpoint {
+        private String path;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+    }
+}
@@ -0,0 +1,29 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and adaptive concurrency limit settings, applied to each
+ * government API endpoint separately ({@code gov.api.resilience.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "gov.api.resilience")
+public class GovApiResilienceProperties {
+    // Circuit breaker
+    private double failureRateThreshold = 0.5;
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenCalls = 3;
+
+    // AIMD concurrency limit
+    private int initialLimit = 20;
+    private int minLimit = 2;
+    private int maxLimit = 64;
+    private double backoffRatio = 0.9;
+    // Calls slower than this count as a congestion signal
+    private Duration slowCallThreshold = Duration.ofSeconds(5);
+}
@@ -0,0 +1,98 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import Dx_ET_Trade.ET_Trade.model.CompanyAddress;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for the customer aggregate and the findByTin
+ * query, on a local Caffeine JCache provider. Every region is created here
+ * with its bounds; a region without one fails at startup instead of growing
+ * unbounded. Hit / miss counts are published by Hibernate's statistics as
+ * the {@code hibernate.second.level.cache.*} and {@code hibernate.cache.query.*}
+ * metrics.
+ *
+ * With {@code jpa.second-level-cache.enabled=false} the cache is switched off
+ * in Hibernate explicitly: the entities stay {@code @Cacheable} and
+ * hibernate-jcache stays on the classpath, so leaving the settings out would
+ * have Hibernate create unbounded regions on the fly instead.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    // Entity and collection regions use Hibernate's default names
+    private static final List<String> AGGREGATE_REGIONS = List.of(
+            CompanyCustomer.class.getName(),
+            CompanyCustomer.class.getName() + ".businesses",
+            CompanyBusiness.class.getName(),
+            CompanyBusiness.class.getName() + ".subGroupCodes",
+            CompanyAddress.class.getName());
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "jpa.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        // The provider hands out one manager per URI; a unique one keeps contexts (e.g. tests) apart
+        URI uri = URI.create("et-trade-second-level-cache-" + UUID.randomUUID());
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, getClass().getClassLoader());
+
+        for (String region : AGGREGATE_REGIONS) {
+            cacheManager.createCache(region, bounded(properties.getMaxEntries(), properties.getTtl().toNanos()));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION,
+                bounded(properties.getQueryMaxEntries(), properties.getTtl().toNanos()));
+        // Last write per table; query results are checked against it, so it is never evicted
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jpa.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jpa.second-level-cache.enabled", havingValue = "false")
+    public HibernatePropertiesCustomizer secondLevelCacheDisabledCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, long ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttlNanos));
+        return configuration;
+    }
+}
@@ -0,0 +1,21 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hibernate second-level cache settings ({@code jpa.second-level-cache.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "jpa.second-level-cache")
+public class SecondLevelCacheProperties {
+    private boolean enabled = true;
+    // Per entity / collection region
+    private int maxEntries = 20_000;
+    // Bounds staleness from writes this instance did not make (other instances, manual fixes)
+    private Duration ttl = Duration.ofMinutes(30);
+    // Cached findByTin results
+    private int queryMaxEntries = 10_000;
+}
@@ -0,0 +1,21 @@
+package Dx_ET_Trade.ET_Trade.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One NDJSON line of a batch sync: either the sync result or the error for a TIN
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSyncResultDto {
+    @JsonProperty("Tin")
+    private String tin;
+    @JsonProperty("Sync")
+    private SyncResponseDto sync;
+    @JsonProperty("Error")
+    private ErrorResponse error;
+}
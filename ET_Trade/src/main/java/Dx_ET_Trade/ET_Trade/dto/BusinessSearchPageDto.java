@@ -0,0 +1,20 @@
+package Dx_ET_Trade.ET_Trade.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// A page of search results; pass NextCursor as "after" to get the next page (absent on the last one)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BusinessSearchPageDto {
+    @JsonProperty("Results")
+    private List<BusinessSearchResultDto> results;
+    @JsonProperty("NextCursor")
+    private Long nextCursor;
+}
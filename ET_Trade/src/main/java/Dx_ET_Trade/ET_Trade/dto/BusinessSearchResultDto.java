@@ -0,0 +1,28 @@
+package Dx_ET_Trade.ET_Trade.dto;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// One business matched by /api/business/search, read straight from the search query
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessSearchResultDto {
+    @JsonProperty("Tin")
+    private String tin;
+    @JsonProperty("BusinessName")
+    private String businessName;
+    @JsonProperty("BusinessNameAmh")
+    private String businessNameAmh;
+    @JsonProperty("LicenceNumber")
+    private String licenceNumber;
+    @JsonProperty("TradeName")
+    private String tradeName;
+    @JsonProperty("TradeNameAmh")
+    private String tradeNameAmh;
+    @JsonProperty("RenewedTo")
+    private LocalDate renewedTo;
+}
@@ -0,0 +1,30 @@
+package Dx_ET_Trade.ET_Trade.dto;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// One NDJSON line of /api/business/renewal-status; Cursor resumes the stream after this row
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenewalStatusDto {
+    @JsonProperty("Tin")
+    private String tin;
+    @JsonProperty("BusinessName")
+    private String businessName;
+    @JsonProperty("LicenceNumber")
+    private String licenceNumber;
+    @JsonProperty("TradeName")
+    private String tradeName;
+    @JsonProperty("Region")
+    private String region;
+    @JsonProperty("RenewedTo")
+    private LocalDate renewedTo;
+    @JsonProperty("Expired")
+    private boolean expired;
+    @JsonProperty("Cursor")
+    private String cursor;
+}
@@ -0,0 +1,40 @@
+package Dx_ET_Trade.ET_Trade.dto;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SyncJobDto {
+    @JsonProperty("Id")
+    private String id;
+    @JsonProperty("Tin")
+    private String tin;
+    @JsonProperty("Status")
+    private String status;
+    @JsonProperty("ProcessedLicenses")
+    private Integer processedLicenses;
+    @JsonProperty("TotalLicenses")
+    private Integer totalLicenses;
+    @JsonProperty("Result")
+    private SyncResponseDto result;
+    @JsonProperty("Error")
+    private String error;
+    @JsonProperty("CreatedAt")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant createdAt;
+    @JsonProperty("StartedAt")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant startedAt;
+    @JsonProperty("FinishedAt")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant finishedAt;
+}
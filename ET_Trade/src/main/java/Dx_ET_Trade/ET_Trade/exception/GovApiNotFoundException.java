@@ -0,0 +1,13 @@
+package Dx_ET_Trade.ET_Trade.exception;
+
+/**
+ * The government API answered, but has no usable document for the TIN or
+ * license: not found, an empty body, or registration info / business detail
+ * missing required fields. Unlike transport failures this is not transient,
+ * so the response cache remembers it for a short while.
+ */
+public class GovApiNotFoundException extends Syncexception {
+    public GovApiNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package Dx_ET_Trade.ET_Trade.exception;
+
+/**
+ * The government API call was not attempted because the endpoint is
+ * considered unhealthy (circuit open or concurrency limit reached).
+ */
+public class GovApiUnavailableException extends Syncexception {
+    public GovApiUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Associate photo content, keyed by the SHA-256 of its base64 text. Kept out
+ * of company_associates so customer loads don't read image bytes; identical
+ * photos (the same manager on several customers) are stored once.
+ */
+@Data
+@Entity
+@Table(name = "associate_photos")
+public class AssociatePhoto {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    // Base64 as received from the government API
+    @Column(nullable = false, columnDefinition = "text")
+    private String data;
+
+    private Integer size;
+
+    private Instant createdAt;
+}
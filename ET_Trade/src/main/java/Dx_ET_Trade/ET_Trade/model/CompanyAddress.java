@@ -2,13 +2,18 @@ package Dx_ET_Trade.ET_Trade.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "company_addresses")
 public class CompanyAddress {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_addresses_seq")
+    @SequenceGenerator(name = "company_addresses_seq", sequenceName = "company_addresses_seq", allocationSize = 50)
     private Long id;
 
     private String region;
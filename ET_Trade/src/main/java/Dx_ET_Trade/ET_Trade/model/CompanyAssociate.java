@@ -8,14 +8,16 @@ import lombok.Data;
 @Table(name = "company_associates")
 public class CompanyAssociate {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_associates_seq")
+    @SequenceGenerator(name = "company_associates_seq", sequenceName = "company_associates_seq", allocationSize = 50)
     private Long id;
 
     private String position;
     private String managerName;
     private String managerNameEng;
-    @Lob
-    private String photo;
+    // SHA-256 of the photo in associate_photos, see PhotoStore
+    @Column(length = 64)
+    private String photoHash;
     private String mobilePhone;
     private String regularPhone;
 
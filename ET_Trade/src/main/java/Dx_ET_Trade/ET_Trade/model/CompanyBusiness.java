@@ -2,19 +2,28 @@ package Dx_ET_Trade.ET_Trade.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "company_businesses")
 public class CompanyBusiness {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_businesses_seq")
+    @SequenceGenerator(name = "company_businesses_seq", sequenceName = "company_businesses_seq", allocationSize = 50)
     private Long id;
 
+    // A sync and a renewal of the same license conflict on this instead of overwriting each other
+    @Version
+    private Long version;
+
     private String mainGuid;
     private String licenceNumber;
     private LocalDate dateRegistered;
@@ -26,10 +35,20 @@ public class CompanyBusiness {
     private Integer status;
     private Double capital;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    // Stored from the registration listing because the detail fetch failed; the next sync fetches it again
+    private boolean basicInfoOnly;
+
+    // Owner names + trade names + license, for /api/business/search (set by SyncService)
+    @Column(columnDefinition = "text")
+    private String searchText;
+
+    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private CompanyAddress address;
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "business_id")
-    private List<BusinessSubGroup> subGroups = new ArrayList<>();
+    // Codes into licensing_sub_groups; descriptions come from SubGroupTaxonomy
+    @ElementCollection
+    @CollectionTable(name = "business_sub_group_codes", joinColumns = @JoinColumn(name = "business_id"))
+    @Column(name = "code", nullable = false)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Integer> subGroupCodes = new LinkedHashSet<>();
 }
\ No newline at end of file
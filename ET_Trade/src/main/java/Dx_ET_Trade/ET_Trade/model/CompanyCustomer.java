@@ -2,19 +2,29 @@ package Dx_ET_Trade.ET_Trade.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "company_customers")
 public class CompanyCustomer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_customers_seq")
+    @SequenceGenerator(name = "company_customers_seq", sequenceName = "company_customers_seq", allocationSize = 50)
     private Long id;
 
+    // Bumped by every sync that changes the customer or its list of businesses
+    @Version
+    private Long version;
+
     @Column(unique = true, nullable = false)
     private String tin;
 
@@ -25,14 +35,84 @@ public class CompanyCustomer {
     private String businessNameAmh;
     private Double paidUpCapital;
 
+    // Summary of the businesses' renewedTo, so Rule 1 and the sync response need only this row.
+    // Recomputed by summarizeRenewals() when the businesses are written together, updated by
+    // applyRenewalChange() when a single business is.
+    private LocalDate earliestRenewedTo;
+    private LocalDate latestRenewedTo;
+    @Column(name = "has_unknown_expiry", nullable = false)
+    private boolean unknownExpiry;
+
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "customer_id")
+    @JoinColumn(name = "customer_id", nullable = false, updatable = false)
     private List<CompanyAssociate> associates = new ArrayList<>();
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "customer_id")
+    @JoinColumn(name = "customer_id", nullable = false, updatable = false)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<CompanyBusiness> businesses = new ArrayList<>();
 
+    public void summarizeRenewals() {
+        LocalDate earliest = null;
+        LocalDate latest = null;
+        boolean unknown = false;
+        for (CompanyBusiness business : businesses) {
+            LocalDate renewedTo = business.getRenewedTo();
+            if (renewedTo == null) {
+                unknown = true;
+                continue;
+            }
+            if (earliest == null || renewedTo.isBefore(earliest)) {
+                earliest = renewedTo;
+            }
+            if (latest == null || renewedTo.isAfter(latest)) {
+                latest = renewedTo;
+            }
+        }
+        this.earliestRenewedTo = earliest;
+        this.latestRenewedTo = latest;
+        this.unknownExpiry = unknown;
+    }
+
+    /**
+     * Updates the renewal summary for one business whose renewedTo moved from
+     * {@code previous} to {@code current}, without reading the other
+     * businesses. Returns false, leaving the summary as it was, when that is
+     * not enough: the business held the earliest or latest date and moved
+     * inwards, or was one without expiry. The caller then sets the summary
+     * from all businesses (see CompanyCustomerRepository#updateRenewalSummary).
+     */
+    public boolean applyRenewalChange(LocalDate previous, LocalDate current) {
+        if (Objects.equals(previous, current)) {
+            return true;
+        }
+        if (previous == null) {
+            return false;
+        }
+        if (previous.equals(earliestRenewedTo) && (current == null || current.isAfter(previous))) {
+            return false;
+        }
+        if (previous.equals(latestRenewedTo) && (current == null || current.isBefore(previous))) {
+            return false;
+        }
+        if (current == null) {
+            unknownExpiry = true;
+            return true;
+        }
+        if (earliestRenewedTo == null || current.isBefore(earliestRenewedTo)) {
+            earliestRenewedTo = current;
+        }
+        if (latestRenewedTo == null || current.isAfter(latestRenewedTo)) {
+            latestRenewedTo = current;
+        }
+        return true;
+    }
+
+    // A license without an expiry date counts as expired
+    public boolean hasExpiredLicense(LocalDate today) {
+        return unknownExpiry || (earliestRenewedTo != null && earliestRenewedTo.isBefore(today));
+    }
+
     // Ensure TIN is never null
     public void setTin(String tin) {
         if (tin == null || tin.trim().isEmpty()) {
@@ -0,0 +1,26 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Licensing subgroup taxonomy: one row per subgroup code, shared by every
+ * business holding it (see {@link CompanyBusiness#getSubGroupCodes()}).
+ * Descriptions are served from the in-memory SubGroupTaxonomy, which re-reads
+ * rows whose updatedAt moved.
+ */
+@Data
+@Entity
+@Table(name = "licensing_sub_groups")
+public class LicensingSubGroup {
+    @Id
+    private Integer code;
+
+    @Column(columnDefinition = "text")
+    private String description;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,29 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * When the background renewal refresher last synced a customer, successfully
+ * or not. Kept apart from company_customers so recording it neither bumps the
+ * customer's {@code @Version} nor evicts its second-level cache entries.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "renewal_refresh_checks")
+public class RenewalRefreshCheck {
+    @Id
+    private String tin;
+
+    @Column(nullable = false)
+    private Instant checkedAt;
+
+    public RenewalRefreshCheck(String tin, Instant checkedAt) {
+        this.tin = tin;
+        this.checkedAt = checkedAt;
+    }
+}
@@ -0,0 +1,53 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A license renewal submitted with an Idempotency-Key header. Recorded in the
+ * renewal's transaction, so a retried POST either finds it (and is answered
+ * without renewing again) or the renewal never happened.
+ */
+@Data
+@Entity
+@Table(name = "renewal_requests")
+public class RenewalRequest implements Persistable<String> {
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String tin;
+
+    @Column(nullable = false)
+    private String licenceNumber;
+
+    @Column(nullable = false)
+    private LocalDate renewedTo;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Keys are assigned by the client: save() inserts right away instead of merging (no select first)
+    @Transient
+    private boolean loaded;
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+}
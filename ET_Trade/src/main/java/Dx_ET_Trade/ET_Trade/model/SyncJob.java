@@ -0,0 +1,51 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * An asynchronous customer sync submitted through the jobs API. Persisted so
+ * queued and running jobs survive a restart; finished jobs are purged after
+ * {@code sync.jobs.retention}.
+ */
+@Data
+@Entity
+@Table(name = "sync_jobs")
+public class SyncJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String tin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SyncJobStatus status;
+
+    // Licenses processed so far vs. the number of businesses in the registration info
+    private Integer processedLicenses;
+    private Integer totalLicenses;
+
+    // Final SyncResponseDto, once the job succeeded
+    private String businessName;
+    private String resultStatus;
+    private LocalDate renewedTo;
+    private Boolean renewable;
+    private String message;
+
+    @Column(length = 2000)
+    private String error;
+
+    // Instance running (or about to run) the job, until the lease expires unless renewed
+    @Column(length = 36)
+    private String leaseOwner;
+    private Instant leaseExpiresAt;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,8 @@
+package Dx_ET_Trade.ET_Trade.model;
+
+public enum SyncJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
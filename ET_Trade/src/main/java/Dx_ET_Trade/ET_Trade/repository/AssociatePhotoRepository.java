@@ -0,0 +1,34 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.AssociatePhoto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface AssociatePhotoRepository extends JpaRepository<AssociatePhoto, String> {
+
+    /*
+     * Content is keyed by its hash, so storing a photo that is already there is a
+     * no-op. A transaction inserting a photo that another one is inserting at the
+     * same moment waits for it and then inserts nothing (hash is the only unique
+     * constraint). The native-spaces hint names the table written, otherwise
+     * Hibernate treats the statement as touching every table and empties the
+     * second-level cache.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "associate_photos"))
+    @Query(value = "insert into associate_photos (hash, data, size, created_at) " +
+                   "values (:hash, :data, :size, :createdAt) " +
+                   "on conflict do nothing",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("data") String data,
+                       @Param("size") int size, @Param("createdAt") Instant createdAt);
+}
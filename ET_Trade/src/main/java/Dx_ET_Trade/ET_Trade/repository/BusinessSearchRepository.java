@@ -0,0 +1,162 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.dto.BusinessSearchPageDto;
+import Dx_ET_Trade.ET_Trade.dto.BusinessSearchResultDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Business search over customer names (English / Amharic), trade names and
+ * license numbers, all kept in company_businesses.search_text (V4 migration).
+ * A query of plain ASCII words is a full-text query ('simple' config, GIN
+ * index) in which the last word may be a prefix of a word; any other query
+ * (Amharic, license numbers) matches as a substring (ILIKE, trigram GIN index).
+ *
+ * Results are ordered by business id, not by relevance, and paged by keyset:
+ * the next page starts after the last id returned. A text search first probes
+ * the next {@code search.probe-rows} businesses in id order, which fills the
+ * page for common terms; only when that falls short does it ask the match
+ * index, whose result is then small. This keeps the planner from walking the
+ * whole primary key for a rare term it thought common, and from reading
+ * every match of a common term from the index.
+ */
+@Repository
+public class BusinessSearchRepository {
+
+    private static final String COLUMNS =
+            "select b.id, c.tin, c.business_name, c.business_name_amh, b.licence_number, " +
+            "b.trades_name, b.trade_name_amh, b.renewed_to ";
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final String FROM = "from company_businesses b join company_customers c on c.id = b.customer_id ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int probeRows;
+
+    public BusinessSearchRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                    @Value("${search.probe-rows:2000}") int probeRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.probeRows = probeRows;
+    }
+
+    /**
+     * Returns up to {@code limit} businesses with an id greater than
+     * {@code after} that match every given criterion; null criteria are ignored.
+     */
+    @Transactional(readOnly = true)
+    public BusinessSearchPageDto search(String query, String tin, String licenseNo, Long after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", after != null ? after : 0L)
+                .addValue("limit", limit);
+
+        StringBuilder filters = new StringBuilder();
+        if (tin != null && !tin.isBlank()) {
+            filters.append("and c.tin = :tin ");
+            params.addValue("tin", tin.strip());
+        }
+        if (licenseNo != null && !licenseNo.isBlank()) {
+            filters.append("and b.licence_number = :licenseNo ");
+            params.addValue("licenseNo", licenseNo.strip());
+        }
+
+        String text = query != null ? query.strip() : "";
+        if (text.isEmpty()) {
+            return query(COLUMNS + FROM + "where b.id > :after " + filters + "order by b.id limit :limit", params, limit);
+        }
+
+        // A generic plan of a prepared statement estimates every query term alike; plan each
+        // search for its own terms instead
+        jdbcTemplate.getJdbcTemplate().execute("set local plan_cache_mode = force_custom_plan");
+
+        String match;
+        String tsQuery = toPrefixTsQuery(text);
+        if (tsQuery != null) {
+            match = "b.search_vector @@ to_tsquery('simple', :tsquery) ";
+            params.addValue("tsquery", tsQuery);
+        } else {
+            match = "b.search_text ilike :pattern escape '\\' ";
+            params.addValue("pattern", "%" + escapeLike(text) + "%");
+        }
+        if (!filters.isEmpty()) {
+            // The tin / licence number indexes narrow the search to a few businesses
+            return query(COLUMNS + FROM + "where b.id > :after and " + match + filters +
+                    "order by b.id limit :limit", params, limit);
+        }
+
+        // Probe: the match condition is evaluated on the next probeRows businesses only
+        params.addValue("probeRows", probeRows);
+        BusinessSearchPageDto page = query(COLUMNS +
+                "from (select * from company_businesses where id > :after order by id limit :probeRows) b " +
+                "join company_customers c on c.id = b.customer_id " +
+                "where " + match + "order by b.id limit :limit", params, limit);
+        if (page.getNextCursor() != null || !hasMoreThanProbe(params)) {
+            return page;
+        }
+        // Sparse matches: read them all from the match index. Sorting by "b.id + 0" keeps
+        // the planner from walking the primary key instead, which would scan the table
+        return query(COLUMNS + FROM + "where b.id > :after and " + match + "order by b.id + 0 limit :limit", params, limit);
+    }
+
+    // Whether businesses beyond the probe remain, i.e. whether a short probe left any unsearched
+    private boolean hasMoreThanProbe(MapSqlParameterSource params) {
+        Integer scanned = jdbcTemplate.queryForObject(
+                "select count(*) from (select 1 from company_businesses where id > :after order by id limit :probeRows) w",
+                params, Integer.class);
+        return scanned != null && scanned >= probeRows;
+    }
+
+    private BusinessSearchPageDto query(String sql, MapSqlParameterSource params, int limit) {
+        List<BusinessSearchResultDto> results = new ArrayList<>();
+        long[] lastId = {0};
+        jdbcTemplate.query(sql, params, rs -> {
+            lastId[0] = rs.getLong("id");
+            Date renewedTo = rs.getDate("renewed_to");
+            results.add(new BusinessSearchResultDto(
+                    rs.getString("tin"),
+                    rs.getString("business_name"),
+                    rs.getString("business_name_amh"),
+                    rs.getString("licence_number"),
+                    rs.getString("trades_name"),
+                    rs.getString("trade_name_amh"),
+                    renewedTo != null ? renewedTo.toLocalDate() : null));
+        });
+
+        return new BusinessSearchPageDto(results, results.size() == limit ? lastId[0] : null);
+    }
+
+    /**
+     * "abebe trad" -> "abebe & trad:*", or null when the text should be matched
+     * as a substring instead. Only the last word is a prefix (the one still
+     * being typed), and only from MIN_PREFIX_LENGTH characters: a prefix term
+     * makes the index read the postings of every word it expands to, before
+     * the other terms can narrow them.
+     * Only plain ASCII words are used: the text search parser drops characters
+     * the database locale doesn't classify as letters (Ethiopic under the C
+     * locale), which would silently widen the query.
+     */
+    static String toPrefixTsQuery(String text) {
+        String[] tokens = text.split("\\s+");
+        List<String> terms = new ArrayList<>();
+        for (String token : tokens) {
+            if (!token.matches("[A-Za-z0-9]+")) {
+                return null;
+            }
+            terms.add(token.toLowerCase());
+        }
+        String last = terms.get(terms.size() - 1);
+        if (last.length() >= MIN_PREFIX_LENGTH) {
+            terms.set(terms.size() - 1, last + ":*");
+        }
+        return String.join(" & ", terms);
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
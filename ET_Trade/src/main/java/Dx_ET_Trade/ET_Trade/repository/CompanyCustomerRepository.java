@@ -1,13 +1,126 @@
 package Dx_ET_Trade.ET_Trade.repository;
 
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
 import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CompanyCustomerRepository extends JpaRepository<CompanyCustomer, Long> {
+    // Query cache: the result (the customer id) is dropped whenever company_customers is written
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CompanyCustomer> findByTin(String Tin);
     boolean existsByTin(String Tin);
+
+    // Customer plus its businesses, in one select (no address / subgroups)
+    @EntityGraph(attributePaths = "businesses")
+    Optional<CompanyCustomer> findWithBusinessesByTin(String tin);
+
+    /**
+     * Loads the address and subgroups of every business of an already loaded
+     * customer in one select. Both collections are bags, so they cannot be
+     * join-fetched together with the businesses in a single query.
+     */
+    @Query("select distinct b from CompanyCustomer c join c.businesses b " +
+           "left join fetch b.address left join fetch b.subGroupCodes where c.id = :customerId")
+    List<CompanyBusiness> fetchBusinessDetails(@Param("customerId") Long customerId);
+
+    // Customer with businesses + address + subgroups, in two selects
+    default Optional<CompanyCustomer> findAggregateByTin(String tin) {
+        Optional<CompanyCustomer> customer = findWithBusinessesByTin(tin);
+        customer.ifPresent(c -> fetchBusinessDetails(c.getId()));
+        return customer;
+    }
+
+    /**
+     * The business with the given licence number of the customer with the given
+     * TIN, with its address and subgroups, without loading the other businesses.
+     * Normally one element; a duplicated licence number yields more.
+     */
+    @Query("select distinct b from CompanyCustomer c join c.businesses b " +
+           "left join fetch b.address left join fetch b.subGroupCodes " +
+           "where c.tin = :tin and b.licenceNumber = :licenseNo")
+    List<CompanyBusiness> findBusinessesByTinAndLicence(@Param("tin") String tin, @Param("licenseNo") String licenseNo);
+
+    // Customers holding a licence number (idx_company_businesses_licence); normally one
+    @Query("select distinct c.tin from CompanyCustomer c join c.businesses b where b.licenceNumber = :licenseNo")
+    List<String> findTinsByLicence(@Param("licenseNo") String licenseNo);
+
+    // Counts an indexed column so the business side can be an index-only scan of (customer_id, licence_number)
+    @Query("select count(b.licenceNumber) from CompanyCustomer c join c.businesses b " +
+           "where c.tin = :tin and b.licenceNumber = :licenseNo")
+    long countBusinessesByTinAndLicence(@Param("tin") String tin, @Param("licenseNo") String licenseNo);
+
+    default boolean existsBusinessByTinAndLicence(String tin, String licenseNo) {
+        return countBusinessesByTinAndLicence(tin, licenseNo) > 0;
+    }
+
+    @Query("select count(b) from CompanyCustomer c join c.businesses b where c.tin = :tin")
+    long countBusinessesByTin(@Param("tin") String tin);
+
+    /**
+     * Updates the customer's renewal summary after one of its businesses'
+     * renewedTo moved from {@code previous} to {@code current}: from the
+     * customer row when possible, otherwise with one aggregate query over the
+     * businesses' rows. The businesses collection is not loaded either way.
+     */
+    default void updateRenewalSummary(CompanyCustomer customer, LocalDate previous, LocalDate current) {
+        if (!customer.applyRenewalChange(previous, current)) {
+            RenewalSummary summary = findRenewalSummary(customer.getId());
+            customer.setEarliestRenewedTo(summary.getEarliest());
+            customer.setLatestRenewedTo(summary.getLatest());
+            customer.setUnknownExpiry(summary.getUnknown() > 0);
+        }
+    }
+
+    // Flushes pending business changes first (Hibernate auto-flush), so it sees the moved date
+    @Query("select min(b.renewedTo) as earliest, max(b.renewedTo) as latest, " +
+           "count(b) - count(b.renewedTo) as unknown " +
+           "from CompanyCustomer c join c.businesses b where c.id = :customerId")
+    RenewalSummary findRenewalSummary(@Param("customerId") Long customerId);
+
+    interface RenewalSummary {
+        LocalDate getEarliest();
+        LocalDate getLatest();
+        // Businesses without a renewedTo
+        long getUnknown();
+    }
+
+    // Every TIN, read in chunks; for rebuilding the KnownTins filter
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c.tin from CompanyCustomer c")
+    Stream<String> streamAllTins();
+
+    // TINs whose earliest license expiry falls between today and the cutoff, soonest first,
+    // skipping those the refresher checked since checkedBefore
+    @Query("select c.tin from CompanyCustomer c left join RenewalRefreshCheck r on r.tin = c.tin " +
+           "where c.earliestRenewedTo between :today and :cutoff " +
+           "and (r.checkedAt is null or r.checkedAt < :checkedBefore) " +
+           "order by c.earliestRenewedTo, c.tin")
+    List<String> findTinsWithRenewalDueBetween(@Param("today") LocalDate today,
+                                               @Param("cutoff") LocalDate cutoff,
+                                               @Param("checkedBefore") Instant checkedBefore,
+                                               Pageable pageable);
+
+    // TINs with an expired license or one without expiry, least recently checked by the refresher first
+    @Query("select c.tin from CompanyCustomer c left join RenewalRefreshCheck r on r.tin = c.tin " +
+           "where (c.unknownExpiry = true or c.earliestRenewedTo < :today) " +
+           "and (r.checkedAt is null or r.checkedAt < :checkedBefore) " +
+           "order by r.checkedAt nulls first, c.tin")
+    List<String> findTinsWithExpiredRenewal(@Param("today") LocalDate today,
+                                            @Param("checkedBefore") Instant checkedBefore,
+                                            Pageable pageable);
 }
@@ -0,0 +1,45 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.LicensingSubGroup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface LicensingSubGroupRepository extends JpaRepository<LicensingSubGroup, Integer> {
+
+    List<LicensingSubGroup> findByUpdatedAtAfter(Instant since);
+
+    /*
+     * A transaction adding a
+     * code that another one is adding at the same time waits for it and then
+     * inserts nothing (the primary key is the table's only unique constraint),
+     * so neither sync fails. Scoped to its table so the second-level cache is
+     * not flushed (see AssociatePhotoRepository).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "licensing_sub_groups"))
+    @Query(value = "insert into licensing_sub_groups (code, description, updated_at) " +
+                   "values (:code, :description, :updatedAt) " +
+                   "on conflict do nothing",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("code") Integer code, @Param("description") String description,
+                       @Param("updatedAt") Instant updatedAt);
+
+    // The government renamed a code; writes nothing when the stored description is already this one
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "licensing_sub_groups"))
+    @Query(value = "update licensing_sub_groups set description = :description, updated_at = :updatedAt " +
+                   "where code = :code and description is distinct from :description",
+           nativeQuery = true)
+    int updateDescription(@Param("code") Integer code, @Param("description") String description,
+                          @Param("updatedAt") Instant updatedAt);
+}
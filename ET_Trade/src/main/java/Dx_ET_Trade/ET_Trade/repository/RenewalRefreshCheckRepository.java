@@ -0,0 +1,9 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.RenewalRefreshCheck;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RenewalRefreshCheckRepository extends JpaRepository<RenewalRefreshCheck, String> {
+}
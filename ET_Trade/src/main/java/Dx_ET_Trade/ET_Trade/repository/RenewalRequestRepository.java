@@ -0,0 +1,18 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.RenewalRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RenewalRequestRepository extends JpaRepository<RenewalRequest, String> {
+
+    @Modifying
+    @Query("delete from RenewalRequest r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
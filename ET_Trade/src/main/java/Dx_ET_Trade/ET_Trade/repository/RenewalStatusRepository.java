@@ -0,0 +1,104 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.dto.RenewalStatusDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+/**
+ * Businesses whose license expired or expires by a cutoff date, with the
+ * owner's TIN and name. Rows are read with a JDBC fetch size inside a
+ * read-only transaction (PostgreSQL only uses a server-side cursor with
+ * auto-commit off) and handed to the caller one by one, so the result set is
+ * never held in memory. Ordered by (renewed_to, id) along
+ * idx_company_businesses_renewed_to_id; a row's cursor resumes after it.
+ * Businesses without a known renewed_to are not included.
+ */
+@Repository
+public class RenewalStatusRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public RenewalStatusRepository(DataSource dataSource,
+                                   @Value("${renewal-status.fetch-size:500}") int fetchSize) {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Streams the matching businesses to {@code consumer}. {@code region},
+     * {@code subGroupCode}, {@code after} and {@code limit} are optional.
+     */
+    @Transactional(readOnly = true)
+    public void streamDueBy(LocalDate cutoff, String region, Integer subGroupCode, Cursor after, Integer limit,
+                            Consumer<RenewalStatusDto> consumer) {
+        LocalDate today = LocalDate.now();
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("cutoff", cutoff);
+        StringBuilder sql = new StringBuilder()
+                .append("select b.id, b.renewed_to, b.licence_number, b.trades_name, c.tin, c.business_name, a.region ")
+                .append("from company_businesses b ")
+                .append("join company_customers c on c.id = b.customer_id ")
+                .append("left join company_addresses a on a.id = b.address_id ")
+                .append("where b.renewed_to <= :cutoff ");
+        if (after != null) {
+            sql.append("and (b.renewed_to, b.id) > (:afterDate, :afterId) ");
+            params.addValue("afterDate", after.renewedTo()).addValue("afterId", after.id());
+        }
+        if (region != null && !region.isBlank()) {
+            sql.append("and a.region = :region ");
+            params.addValue("region", region.strip());
+        }
+        if (subGroupCode != null) {
+            sql.append("and exists (select 1 from business_sub_group_codes s where s.business_id = b.id and s.code = :code) ");
+            params.addValue("code", subGroupCode);
+        }
+        sql.append("order by b.renewed_to, b.id");
+        if (limit != null) {
+            sql.append(" limit :limit");
+            params.addValue("limit", limit);
+        }
+
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            LocalDate renewedTo = rs.getDate("renewed_to").toLocalDate();
+            long id = rs.getLong("id");
+            consumer.accept(new RenewalStatusDto(
+                    rs.getString("tin"),
+                    rs.getString("business_name"),
+                    rs.getString("licence_number"),
+                    rs.getString("trades_name"),
+                    rs.getString("region"),
+                    renewedTo,
+                    renewedTo.isBefore(today),
+                    new Cursor(renewedTo, id).toString()));
+        });
+    }
+
+    // Position in the (renewed_to, id) order, rendered as "2025-03-01_12345"
+    public record Cursor(LocalDate renewedTo, long id) {
+
+        public static Cursor parse(String value) {
+            int separator = value.lastIndexOf('_');
+            try {
+                return new Cursor(LocalDate.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new Syncexception("Invalid cursor: " + value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return renewedTo + "_" + id;
+        }
+    }
+}
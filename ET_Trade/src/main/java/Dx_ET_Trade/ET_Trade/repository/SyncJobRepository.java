@@ -0,0 +1,86 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.SyncJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJob, String> {
+
+    // Queued or running jobs whose owner stopped renewing the lease
+    @Query("select j from SyncJob j " +
+           "where j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING) " +
+           "and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now) order by j.createdAt")
+    List<SyncJob> findAbandoned(@Param("now") Instant now);
+
+    // Takes over an abandoned job; 0 when another instance claimed it first
+    @Transactional
+    @Modifying
+    @Query("update SyncJob j set j.leaseOwner = :owner, j.leaseExpiresAt = :until " +
+           "where j.id = :id " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING) " +
+           "and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+    int claim(@Param("id") String id, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("until") Instant until);
+
+    // Marks a job running if this instance still holds its lease; 0 when it was taken over meanwhile
+    @Transactional
+    @Modifying
+    @Query("update SyncJob j set j.status = Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING, j.startedAt = :now " +
+           "where j.id = :id and j.leaseOwner = :owner " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING)")
+    int start(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now);
+
+    // Heartbeat: extends the leases of every unfinished job the instance owns
+    @Transactional
+    @Modifying
+    @Query("update SyncJob j set j.leaseExpiresAt = :until where j.leaseOwner = :owner " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING)")
+    int renewLeases(@Param("owner") String owner, @Param("until") Instant until);
+
+    // Progress is written in its own transaction so pollers see it while the sync runs; batched by the caller
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update SyncJob j set j.processedLicenses = :processed, j.totalLicenses = :total " +
+           "where j.id = :id and (j.processedLicenses is null or j.processedLicenses < :processed)")
+    int updateProgress(@Param("id") String id, @Param("processed") int processed, @Param("total") int total);
+
+    // Finishes a job this instance still owns; 0 when it was taken over or finished meanwhile
+    @Transactional
+    @Modifying
+    @Query("update SyncJob j set j.status = Dx_ET_Trade.ET_Trade.model.SyncJobStatus.SUCCEEDED, " +
+           "j.processedLicenses = :licenses, j.totalLicenses = :licenses, " +
+           "j.businessName = :businessName, j.resultStatus = :resultStatus, j.renewedTo = :renewedTo, " +
+           "j.renewable = :renewable, j.message = :message, j.finishedAt = :now " +
+           "where j.id = :id and j.leaseOwner = :owner " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING)")
+    int succeed(@Param("id") String id, @Param("owner") String owner, @Param("licenses") int licenses,
+                @Param("businessName") String businessName, @Param("resultStatus") String resultStatus,
+                @Param("renewedTo") LocalDate renewedTo, @Param("renewable") boolean renewable,
+                @Param("message") String message, @Param("now") Instant now);
+
+    // Fails a job this instance still owns; 0 when it was taken over or finished meanwhile
+    @Transactional
+    @Modifying
+    @Query("update SyncJob j set j.status = Dx_ET_Trade.ET_Trade.model.SyncJobStatus.FAILED, " +
+           "j.error = :error, j.finishedAt = :now " +
+           "where j.id = :id and j.leaseOwner = :owner " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.QUEUED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.RUNNING)")
+    int fail(@Param("id") String id, @Param("owner") String owner,
+             @Param("error") String error, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SyncJob j where j.finishedAt < :cutoff " +
+           "and j.status in (Dx_ET_Trade.ET_Trade.model.SyncJobStatus.SUCCEEDED, Dx_ET_Trade.ET_Trade.model.SyncJobStatus.FAILED)")
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+}
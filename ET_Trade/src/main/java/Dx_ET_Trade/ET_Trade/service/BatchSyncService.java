@@ -0,0 +1,146 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.BatchSyncResultDto;
+import Dx_ET_Trade.ET_Trade.dto.ErrorResponse;
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs many TINs through {@link SyncService#syncCustomerData(String)} with
+ * bounded parallelism and hands each result to the caller as soon as it
+ * completes (completion order, not input order).
+ *
+ * Every submitted TIN gets exactly one result: a sync that throws, is
+ * rejected by the saturated pool, or gives no result within
+ * {@code sync.batch.result-timeout} is reported as an error line.
+ */
+@Service
+public class BatchSyncService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchSyncService.class);
+
+    private final SyncService syncService;
+    private final Executor syncBatchExecutor;
+
+    @Value("${sync.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${sync.batch.result-timeout:PT5M}")
+    private Duration resultTimeout;
+
+    public BatchSyncService(SyncService syncService,
+                            @Qualifier("syncBatchExecutor") Executor syncBatchExecutor) {
+        this.syncService = syncService;
+        this.syncBatchExecutor = syncBatchExecutor;
+    }
+
+    /**
+     * Syncs every TIN from {@code tins}, keeping at most {@code sync.batch.parallelism}
+     * syncs in flight. Results are passed to {@code onResult} on the calling thread.
+     *
+     * @return the number of TINs processed
+     */
+    public int syncAll(Iterator<String> tins, Consumer<BatchSyncResultDto> onResult) throws InterruptedException {
+        // TIN of each submitted sync whose result has not been handed to onResult yet, by submission number
+        Map<Long, String> inFlight = new LinkedHashMap<>();
+        BlockingQueue<Completion> completed = new LinkedBlockingQueue<>();
+        int maxInFlight = Math.max(1, parallelism);
+        long submitted = 0;
+
+        while (tins.hasNext()) {
+            String tin = tins.next();
+            if (tin == null || tin.trim().isEmpty()) {
+                continue;
+            }
+
+            while (inFlight.size() >= maxInFlight) {
+                awaitResult(completed, inFlight, onResult);
+            }
+            String trimmedTin = tin.trim();
+            long id = submitted++;
+            inFlight.put(id, trimmedTin);
+            try {
+                syncBatchExecutor.execute(() -> {
+                    BatchSyncResultDto result = null;
+                    try {
+                        result = syncOne(trimmedTin);
+                    } finally {
+                        completed.add(new Completion(id, result != null ? result
+                                : failure(trimmedTin, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to sync business data")));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                completed.add(new Completion(id, failure(trimmedTin, HttpStatus.SERVICE_UNAVAILABLE,
+                        "Batch sync is overloaded, please retry")));
+            }
+
+            Completion ready;
+            while ((ready = completed.poll()) != null) {
+                emit(ready, inFlight, onResult);
+            }
+        }
+
+        while (!inFlight.isEmpty()) {
+            awaitResult(completed, inFlight, onResult);
+        }
+        logger.info("Batch sync processed {} TINs", submitted);
+        return (int) submitted;
+    }
+
+    private void awaitResult(BlockingQueue<Completion> completed, Map<Long, String> inFlight,
+                             Consumer<BatchSyncResultDto> onResult) throws InterruptedException {
+        Completion next = completed.poll(resultTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (next != null) {
+            emit(next, inFlight, onResult);
+            return;
+        }
+        // No sync finished in time: give up on those in flight; their late results are dropped
+        logger.warn("Batch sync gave up on {} TINs after waiting {}", inFlight.size(), resultTimeout);
+        for (String tin : inFlight.values()) {
+            onResult.accept(failure(tin, HttpStatus.GATEWAY_TIMEOUT,
+                    "Sync did not finish within " + resultTimeout));
+        }
+        inFlight.clear();
+    }
+
+    private void emit(Completion completion, Map<Long, String> inFlight, Consumer<BatchSyncResultDto> onResult) {
+        if (inFlight.remove(completion.id()) != null) {
+            onResult.accept(completion.result());
+        }
+    }
+
+    private record Completion(long id, BatchSyncResultDto result) {
+    }
+
+    private static BatchSyncResultDto failure(String tin, HttpStatus status, String message) {
+        return new BatchSyncResultDto(tin, null, new ErrorResponse(
+                status.value(), message, System.currentTimeMillis()));
+    }
+
+    private BatchSyncResultDto syncOne(String tin) {
+        try {
+            SyncResponseDto response = syncService.syncCustomerData(tin);
+            return new BatchSyncResultDto(tin, response, null);
+        } catch (Syncexception e) {
+            return failure(tin, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Batch sync failed for TIN {}: {}", tin, e.getMessage());
+            return failure(tin, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to sync business data: " + e.getMessage());
+        }
+    }
+}
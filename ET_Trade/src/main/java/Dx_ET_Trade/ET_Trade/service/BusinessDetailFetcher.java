@@ -0,0 +1,128 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the per-license business details of one TIN concurrently.
+ * At most {@code gov.api.fetch.max-concurrency-per-tin} requests of a single
+ * TIN are in flight at once; the shared pool bounds the total. A fetch the
+ * saturated pool rejects fails like any other, so that license is stored
+ * from its basic info.
+ */
+@Service
+public class BusinessDetailFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(BusinessDetailFetcher.class);
+
+    private final Executor govApiExecutor;
+
+    @Value("${gov.api.fetch.max-concurrency-per-tin:4}")
+    private int maxConcurrencyPerTin;
+
+    public BusinessDetailFetcher(@Qualifier("govApiExecutor") Executor govApiExecutor) {
+        this.govApiExecutor = govApiExecutor;
+    }
+
+    /**
+     * Fetches the details of every business that has a license number.
+     * Results are returned in the order of {@code businesses}; a failed fetch
+     * is reported through {@link FetchResult#getError()} instead of being thrown.
+     * Progress is reported to the context as each license completes, out of
+     * {@code totalLicenses}: the licenses of the TIN not in {@code businesses}
+     * need no fetch and count as processed from the start.
+     */
+    public List<FetchResult> fetchAll(GovFetchContext fetchContext, String tin, List<GovBusinessDto> businesses,
+                                      int totalLicenses, String lang) {
+        List<GovBusinessDto> candidates = new ArrayList<>();
+        for (GovBusinessDto govBusiness : businesses) {
+            String licenseNo = govBusiness.getLicenceNumber();
+            if (licenseNo == null || licenseNo.trim().isEmpty()) {
+                logger.warn("Skipping business with null or empty license number for TIN: {}", tin);
+                continue;
+            }
+            candidates.add(govBusiness);
+        }
+
+        int total = Math.max(totalLicenses, businesses.size());
+        AtomicInteger processed = new AtomicInteger(total - candidates.size());
+        fetchContext.reportProgress(processed.get(), total);
+
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrencyPerTin));
+        List<CompletableFuture<FetchResult>> futures = new ArrayList<>(candidates.size());
+        try {
+            for (GovBusinessDto govBusiness : candidates) {
+                permits.acquire();
+                try {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return fetchOne(fetchContext, tin, govBusiness, lang);
+                        } finally {
+                            permits.release();
+                            fetchContext.reportProgress(processed.incrementAndGet(), total);
+                        }
+                    }, govApiExecutor));
+                } catch (RejectedExecutionException e) {
+                    // Shared pool saturated: reported as a failed fetch rather than run on this thread
+                    logger.warn("Government API pool saturated, skipping detail fetch of license {}",
+                            govBusiness.getLicenceNumber());
+                    permits.release();
+                    fetchContext.reportProgress(processed.incrementAndGet(), total);
+                    futures.add(CompletableFuture.completedFuture(new FetchResult(govBusiness, null, e)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while fetching business details for TIN: " + tin, e);
+        }
+
+        List<FetchResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                results.add(new FetchResult(candidates.get(i), null, e.getCause()));
+            }
+        }
+        return results;
+    }
+
+    private FetchResult fetchOne(GovFetchContext fetchContext, String tin, GovBusinessDto govBusiness, String lang) {
+        String licenseNo = govBusiness.getLicenceNumber();
+        try {
+            GovBusinessDetailDto detail = fetchContext.getBusinessByLicenseNo(licenseNo, tin, lang);
+            logger.info("Successfully fetched detailed info for business with license: {}", licenseNo);
+            return new FetchResult(govBusiness, detail, null);
+        } catch (Exception e) {
+            logger.warn("Failed to fetch detailed info for business {}: {}", licenseNo, e.getMessage());
+            return new FetchResult(govBusiness, null, e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FetchResult {
+        private final GovBusinessDto govBusiness;
+        private final GovBusinessDetailDto detail;
+        private final Throwable error;
+
+        public String getLicenseNo() {
+            return govBusiness.getLicenceNumber();
+        }
+    }
+}
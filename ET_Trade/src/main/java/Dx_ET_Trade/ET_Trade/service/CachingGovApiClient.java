@@ -0,0 +1,198 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caching decorator around {@link GovApiClientService}, enabled with
+ * {@code gov.api.cache.enabled=true}.
+ *
+ * Entries are bounded by size (Caffeine's W-TinyLFU eviction) and by time. An
+ * entry lives for {@code gov.api.cache.ttl}, but never past the end of the
+ * earliest {@code RenewedTo} date it contains, so a renewal that is due is always
+ * re-read from the government. Documents that are already expired are only kept
+ * for {@code gov.api.cache.expired-ttl}.
+ *
+ * Not-found and invalid answers ({@link GovApiNotFoundException}) are remembered
+ * for {@code gov.api.cache.not-found-ttl}, so retries of a mistyped TIN or license
+ * do not reach the government again. Transport failures are never cached.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "gov.api.cache.enabled", havingValue = "true")
+public class CachingGovApiClient implements GovApiClient {
+    private static final Logger logger = LoggerFactory.getLogger(CachingGovApiClient.class);
+
+    private final GovApiClientService delegate;
+    private final Cache<String, GovRegistrationInfoDto> registrationCache;
+    private final Cache<List<String>, GovBusinessDetailDto> businessDetailCache;
+    // Message of the not-found / invalid answer, by key
+    private final Cache<String, String> registrationMisses;
+    private final Cache<List<String>, String> businessDetailMisses;
+
+    @Autowired
+    public CachingGovApiClient(GovApiClientService delegate,
+                               MeterRegistry meterRegistry,
+                               @Value("${gov.api.cache.registration.max-entries:10000}") long registrationMaxEntries,
+                               @Value("${gov.api.cache.business-detail.max-entries:50000}") long businessDetailMaxEntries,
+                               @Value("${gov.api.cache.ttl:PT6H}") Duration ttl,
+                               @Value("${gov.api.cache.expired-ttl:PT5M}") Duration expiredTtl,
+                               @Value("${gov.api.cache.not-found.max-entries:10000}") long notFoundMaxEntries,
+                               @Value("${gov.api.cache.not-found-ttl:PT2M}") Duration notFoundTtl) {
+        this(delegate, meterRegistry, registrationMaxEntries, businessDetailMaxEntries, ttl, expiredTtl,
+                notFoundMaxEntries, notFoundTtl, Clock.systemDefaultZone(), Ticker.systemTicker());
+    }
+
+    // Clock decides which RenewedTo dates are past, ticker measures entry age (tests use fake ones)
+    CachingGovApiClient(GovApiClientService delegate, MeterRegistry meterRegistry,
+                        long registrationMaxEntries, long businessDetailMaxEntries,
+                        Duration ttl, Duration expiredTtl, long notFoundMaxEntries, Duration notFoundTtl,
+                        Clock clock, Ticker ticker) {
+        this.delegate = delegate;
+
+        this.registrationCache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(registrationMaxEntries)
+                .expireAfter(new RenewalAwareExpiry<String, GovRegistrationInfoDto>(
+                        ttl, expiredTtl, clock, CachingGovApiClient::earliestRenewedTo))
+                .recordStats()
+                .build();
+        this.businessDetailCache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(businessDetailMaxEntries)
+                .expireAfter(new RenewalAwareExpiry<List<String>, GovBusinessDetailDto>(
+                        ttl, expiredTtl, clock, detail -> GovApiClientService.parseDate(detail.getRenewedTo())))
+                .recordStats()
+                .build();
+
+        this.registrationMisses = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(notFoundMaxEntries)
+                .expireAfterWrite(notFoundTtl)
+                .recordStats()
+                .build();
+        this.businessDetailMisses = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(notFoundMaxEntries)
+                .expireAfterWrite(notFoundTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, registrationCache, "gov.registration");
+        CaffeineCacheMetrics.monitor(meterRegistry, businessDetailCache, "gov.business-detail");
+        CaffeineCacheMetrics.monitor(meterRegistry, registrationMisses, "gov.registration.not-found");
+        CaffeineCacheMetrics.monitor(meterRegistry, businessDetailMisses, "gov.business-detail.not-found");
+        logger.info("Government API response cache enabled (ttl: {}, expired ttl: {}, not-found ttl: {})",
+                ttl, expiredTtl, notFoundTtl);
+    }
+
+    @Override
+    public GovRegistrationInfoDto getRegistrationInfoByTin(String tin) {
+        return rememberingMisses(registrationMisses, tin,
+                () -> registrationCache.get(tin, delegate::getRegistrationInfoByTin));
+    }
+
+    @Override
+    public GovBusinessDetailDto getBusinessByLicenseNo(String licenseNo, String tin, String lang) {
+        List<String> key = List.of(licenseNo, tin, lang);
+        return rememberingMisses(businessDetailMisses, key,
+                () -> businessDetailCache.get(key, k -> delegate.getBusinessByLicenseNo(licenseNo, tin, lang)));
+    }
+
+    // Answers a recent miss again without calling the government; records new misses
+    private static <K, V> V rememberingMisses(Cache<K, String> misses, K key, Supplier<V> lookup) {
+        String missMessage = misses.getIfPresent(key);
+        if (missMessage != null) {
+            throw new GovApiNotFoundException(missMessage);
+        }
+        try {
+            return lookup.get();
+        } catch (GovApiNotFoundException e) {
+            misses.put(key, e.getMessage());
+            throw e;
+        }
+    }
+
+    public CacheStats getRegistrationStats() {
+        return registrationCache.stats();
+    }
+
+    public CacheStats getBusinessDetailStats() {
+        return businessDetailCache.stats();
+    }
+
+    private static LocalDate earliestRenewedTo(GovRegistrationInfoDto info) {
+        if (info.getBusinesses() == null) {
+            return null;
+        }
+        return info.getBusinesses().stream()
+                .map(GovBusinessDto::getRenewedTo)
+                .map(GovApiClientService::parseDate)
+                .filter(Objects::nonNull)
+                .min(LocalDate::compareTo)
+                .orElse(null);
+    }
+
+    /**
+     * Expires an entry after the configured TTL, or at the end of its
+     * RenewedTo day if that comes first.
+     */
+    private static class RenewalAwareExpiry<K, V> implements Expiry<K, V> {
+        private final Duration ttl;
+        private final Duration expiredTtl;
+        private final Clock clock;
+        private final Function<V, LocalDate> renewedTo;
+
+        RenewalAwareExpiry(Duration ttl, Duration expiredTtl, Clock clock,
+                           Function<V, LocalDate> renewedTo) {
+            this.ttl = ttl;
+            this.expiredTtl = expiredTtl;
+            this.clock = clock;
+            this.renewedTo = renewedTo;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            LocalDate validUntil = renewedTo.apply(value);
+            if (validUntil == null || validUntil.isBefore(LocalDate.now(clock))) {
+                return expiredTtl.toNanos();
+            }
+            Duration untilExpiry = Duration.between(clock.instant(),
+                    validUntil.plusDays(1).atStartOfDay(clock.getZone()).toInstant());
+            return (untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
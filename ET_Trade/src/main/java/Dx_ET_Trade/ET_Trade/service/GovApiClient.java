@@ -0,0 +1,14 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+
+/**
+ * Read access to the etrade.gov.et API. {@link GovApiClientService} talks to the
+ * remote service; decorators such as {@link CachingGovApiClient} wrap it.
+ */
+public interface GovApiClient {
+
+    GovRegistrationInfoDto getRegistrationInfoByTin(String tin);
+
+    GovBusinessDetailDto getBusinessByLicenseNo(String licenseNo, String tin, String lang);
+}
@@ -1,76 +1,96 @@
 package Dx_ET_Trade.ET_Trade.service;
 import Dx_ET_Trade.ET_Trade.dto.*;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
 import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 
-import java.nio.channels.Pipe.SourceChannel;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 
 @Service
-public class GovApiClientService {
+public class GovApiClientService implements GovApiClient {
     private static final Logger logger = LoggerFactory.getLogger(GovApiClientService.class);
+
+    static final String REGISTRATION_ENDPOINT = "/Registration/GetRegistrationInfoByTin";
+    static final String BUSINESS_DETAIL_ENDPOINT = "/BusinessMain/GetBusinessByLicenseNo";
     
     @Value("${gov.api.base-url}")
     private String govApiBaseUrl;
 
+    // Response bodies are only logged (at debug level) when explicitly enabled
+    @Value("${gov.api.log-bodies:false}")
+    private boolean logBodies;
+
+    @Value("${gov.api.log-body-max-bytes:2048}")
+    private int logBodyMaxBytes;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final GovApiGuard registrationGuard;
+    private final GovApiGuard businessDetailGuard;
 
-    public GovApiClientService(RestTemplate restTemplate) {
+    public GovApiClientService(RestTemplate restTemplate, ObjectMapper objectMapper, GovApiGuards govApiGuards) {
         this.restTemplate = restTemplate;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.objectMapper = objectMapper;
+        this.registrationGuard = govApiGuards.forEndpoint(REGISTRATION_ENDPOINT);
+        this.businessDetailGuard = govApiGuards.forEndpoint(BUSINESS_DETAIL_ENDPOINT);
     }
 
+    @Override
     public GovRegistrationInfoDto getRegistrationInfoByTin(String tin) {
         try {
-            String url = govApiBaseUrl + "/Registration/GetRegistrationInfoByTin/" + tin + "/en";
+            String url = govApiBaseUrl + REGISTRATION_ENDPOINT + "/" + tin + "/en";
             logger.info("Fetching registration info for TIN: {} from URL: {}", tin, url);
 
-            HttpHeaders headers = createHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> rawResponse = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-
-            if (rawResponse.getStatusCode() == HttpStatus.OK && rawResponse.getBody() != null) {
-                logger.debug("Raw API response: {}", rawResponse.getBody());
-                
-                try {
-                    GovRegistrationInfoDto registrationInfo = objectMapper.readValue(
-                        rawResponse.getBody(), GovRegistrationInfoDto.class);
-                    
-                    logger.info("Successfully retrieved registration info for TIN: {}", tin);
-                    
-                    validateRegistrationInfo(registrationInfo, tin);
-                    return registrationInfo;
-                } catch (JsonProcessingException e) {
-                    logger.error("Failed to parse registration info response for TIN {}: {}", tin, e.getMessage());
-                    throw new Syncexception("Failed to parse registration info response: " + e.getMessage());
-                }
+            DecodedResponse<GovRegistrationInfoDto> response = registrationGuard.call(() ->
+                    fetchJson(url, GovRegistrationInfoDto.class, "Failed to parse registration info response: "));
+
+            if (response.getStatus() == HttpStatus.OK && response.getBody() != null) {
+                GovRegistrationInfoDto registrationInfo = response.getBody();
+                logger.info("Successfully retrieved registration info for TIN: {}", tin);
+
+                validateRegistrationInfo(registrationInfo, tin);
+                return registrationInfo;
             } else {
                 String errorMessage = String.format("No registration info found for TIN: %s - Status: %s", 
-                    tin, rawResponse.getStatusCode());
+                    tin, response.getStatus());
                 logger.warn(errorMessage);
-                throw new Syncexception(errorMessage);
+                throw notFoundOrFailed(response.getStatus(), errorMessage);
             }
+        } catch (HttpClientErrorException e) {
+            String errorMessage = String.format("No registration info found for TIN: %s - Status: %s",
+                tin, e.getStatusCode());
+            logger.warn(errorMessage);
+            throw notFoundOrFailed(e.getStatusCode(), errorMessage);
         } catch (RestClientException e) {
             String errorMessage = String.format("Failed to connect to government API for TIN %s: %s", 
                 tin, e.getMessage());
             logger.error(errorMessage, e);
             throw new Syncexception(errorMessage);
+        } catch (GovApiUnavailableException e) {
+            logger.warn("Skipped registration info call for TIN {}: {}", tin, e.getMessage());
+            throw e;
+        } catch (GovApiNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             String errorMessage = String.format("Error fetching registration info for TIN %s: %s", 
                 tin, e.getMessage());
@@ -79,9 +99,10 @@ public class GovApiClientService {
         }
     }
 
+    @Override
     public GovBusinessDetailDto getBusinessByLicenseNo(String licenseNo, String tin, String lang) {
         try {
-            String url = govApiBaseUrl + "/BusinessMain/GetBusinessByLicenseNo";
+            String url = govApiBaseUrl + BUSINESS_DETAIL_ENDPOINT;
             logger.info("Fetching business details for License: {} and TIN: {}", licenseNo, tin);
 
             UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url)
@@ -89,40 +110,33 @@ public class GovApiClientService {
                     .queryParam("Tin", tin)
                     .queryParam("Lang", lang);
 
-            HttpHeaders headers = createHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> rawResponse = restTemplate.exchange(
-                    builder.toUriString(), HttpMethod.GET, entity, String.class);
-
-            if (rawResponse.getStatusCode() == HttpStatus.OK && rawResponse.getBody() != null) {
-                logger.debug("Raw business details response: {}", rawResponse.getBody());
-                
-                try {
-                    GovBusinessDetailDto businessDetail = objectMapper.readValue(
-                        rawResponse.getBody(), GovBusinessDetailDto.class);
-                    
-                    // Ensure license number is set from the request parameter
-                    if (businessDetail != null && businessDetail.getLicenceNumber() == null) {
-                        businessDetail.setLicenceNumber(licenseNo);
-                    }
-                    
-                    logger.info("Successfully retrieved business details for License: {}", licenseNo);
-                    
-                    validateBusinessDetail(businessDetail, licenseNo);
-                    return businessDetail;
-                } catch (JsonProcessingException e) {
-                    String errorMessage = String.format("Failed to parse business details response for License %s: %s", 
-                        licenseNo, e.getMessage());
-                    logger.error(errorMessage);
-                    throw new Syncexception(errorMessage);
+            DecodedResponse<GovBusinessDetailDto> response = businessDetailGuard.call(() ->
+                    fetchJson(builder.toUriString(), GovBusinessDetailDto.class,
+                            String.format("Failed to parse business details response for License %s: ", licenseNo)));
+
+            if (response.getStatus() == HttpStatus.OK && response.getBody() != null) {
+                GovBusinessDetailDto businessDetail = response.getBody();
+
+                // Ensure license number is set from the request parameter
+                if (businessDetail.getLicenceNumber() == null) {
+                    businessDetail.setLicenceNumber(licenseNo);
                 }
+
+                logger.info("Successfully retrieved business details for License: {}", licenseNo);
+
+                validateBusinessDetail(businessDetail, licenseNo);
+                return businessDetail;
             } else {
                 String errorMessage = String.format("No business details found for License: %s - Status: %s", 
-                    licenseNo, rawResponse.getStatusCode());
+                    licenseNo, response.getStatus());
                 logger.warn(errorMessage);
-                throw new Syncexception(errorMessage);
+                throw notFoundOrFailed(response.getStatus(), errorMessage);
             }
+        } catch (HttpClientErrorException e) {
+            String errorMessage = String.format("No business details found for License: %s - Status: %s",
+                licenseNo, e.getStatusCode());
+            logger.warn(errorMessage);
+            throw notFoundOrFailed(e.getStatusCode(), errorMessage);
         } catch (RestClientException e) {
             String errorMessage = String.format("Failed to connect to government API for License %s: %s", 
                 licenseNo, e.getMessage());
@@ -139,6 +153,65 @@ public class GovApiClientService {
         }
     }
 
+    /**
+     * GETs {@code url} and decodes the JSON body straight from the response
+     * stream with the shared, pre-configured ObjectMapper. The body is null for
+     * non-200 or empty responses.
+     */
+    private <T> DecodedResponse<T> fetchJson(String url, Class<T> type, String parseErrorPrefix) {
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().putAll(createHeaders()),
+                response -> {
+                    HttpStatusCode status = response.getStatusCode();
+                    if (status != HttpStatus.OK) {
+                        return new DecodedResponse<>(status, null);
+                    }
+                    return new DecodedResponse<>(status, readBody(url, response, type, parseErrorPrefix));
+                });
+    }
+
+    private <T> T readBody(String url, ClientHttpResponse response, Class<T> type, String parseErrorPrefix)
+            throws IOException {
+        InputStream body = new BufferedInputStream(response.getBody(), Math.max(8192, logBodyMaxBytes + 1));
+
+        // Peek at the stream: an empty body counts as "not found", like before
+        body.mark(1);
+        if (body.read() == -1) {
+            return null;
+        }
+        body.reset();
+
+        if (logBodies && logger.isDebugEnabled()) {
+            logBodyPrefix(url, body);
+        }
+
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            logger.error(parseErrorPrefix + e.getOriginalMessage());
+            throw new Syncexception(parseErrorPrefix + e.getOriginalMessage());
+        }
+    }
+
+    private void logBodyPrefix(String url, InputStream body) throws IOException {
+        body.mark(logBodyMaxBytes + 1);
+        byte[] prefix = body.readNBytes(logBodyMaxBytes + 1);
+        body.reset();
+
+        boolean truncated = prefix.length > logBodyMaxBytes;
+        String text = new String(prefix, 0, Math.min(prefix.length, logBodyMaxBytes), StandardCharsets.UTF_8);
+        logger.debug("Raw API response from {}: {}{}", url, text, truncated ? "... (truncated)" : "");
+    }
+
+    // An empty 200 or a 4xx (other than 429) means the government has no such document;
+    // 429, 5xx and the rest may pass
+    private static Syncexception notFoundOrFailed(HttpStatusCode status, String errorMessage) {
+        if (status == HttpStatus.OK || (status.is4xxClientError() && status != HttpStatus.TOO_MANY_REQUESTS)) {
+            return new GovApiNotFoundException(errorMessage);
+        }
+        return new Syncexception(errorMessage);
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Referer", "https://etrade.gov.et");
@@ -148,7 +221,7 @@ public class GovApiClientService {
 
     private void validateRegistrationInfo(GovRegistrationInfoDto info, String tin) {
         if (info == null) {
-            throw new Syncexception("Null registration info received for TIN: " + tin);
+            throw new GovApiNotFoundException("Null registration info received for TIN: " + tin);
         }
 
         StringBuilder missingFields = new StringBuilder();
@@ -168,17 +241,17 @@ public class GovApiClientService {
             String errorMessage = String.format("Invalid registration info: missing required fields (%s) for TIN: %s", 
                 missing, tin);
             logger.warn(errorMessage);
-            throw new Syncexception(errorMessage);
+            throw new GovApiNotFoundException(errorMessage);
         }
     }
 
     private void validateBusinessDetail(GovBusinessDetailDto detail, String licenseNo) {
         if (detail == null) {
-            throw new Syncexception("Null business detail received for License: " + licenseNo);
+            throw new GovApiNotFoundException("Null business detail received for License: " + licenseNo);
         }
 
-        // Log the received detail for debugging
-        logger.debug("Validating business detail for license {}: {}", licenseNo, detail);
+        // The detail itself is not logged: it carries base64 associate photos
+        logger.debug("Validating business detail for license {}", licenseNo);
 
         // Check for essential fields
         StringBuilder missingFields = new StringBuilder();
@@ -202,7 +275,7 @@ public class GovApiClientService {
             String errorMessage = String.format("Invalid business detail: missing required fields (%s) for License: %s", 
                 missing, licenseNo);
             logger.warn(errorMessage);
-            throw new Syncexception(errorMessage);
+            throw new GovApiNotFoundException(errorMessage);
         }
 
         // For optional fields, set defaults if missing
@@ -242,4 +315,11 @@ public class GovApiClientService {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    @Getter
+    @AllArgsConstructor
+    private static class DecodedResponse<T> {
+        private final HttpStatusCode status;
+        private final T body;
+    }
+}
@@ -0,0 +1,108 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
+import Dx_ET_Trade.ET_Trade.util.AdaptiveConcurrencyLimiter;
+import Dx_ET_Trade.ET_Trade.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker plus adaptive concurrency limit for one government API
+ * endpoint. Calls are rejected with {@link GovApiUnavailableException} while
+ * the endpoint is unhealthy instead of waiting on the socket.
+ *
+ * Meters: {@code gov.api.circuit.state} (0 closed, 1 open, 2 half-open),
+ * {@code gov.api.concurrency.limit}, {@code gov.api.concurrency.in-flight}
+ * and {@code gov.api.calls} by outcome, all tagged with the endpoint.
+ */
+public class GovApiGuard {
+    private final String endpoint;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+
+    public GovApiGuard(String endpoint, CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter,
+                       MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+
+        Gauge.builder("gov.api.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("gov.api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("gov.api.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        this.successes = Counter.builder("gov.api.calls").tag("endpoint", endpoint).tag("outcome", "success")
+                .register(meterRegistry);
+        this.failures = Counter.builder("gov.api.calls").tag("endpoint", endpoint).tag("outcome", "failure")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("gov.api.calls").tag("endpoint", endpoint).tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> remoteCall) {
+        if (!limiter.tryAcquire()) {
+            rejections.increment();
+            throw new GovApiUnavailableException(String.format(
+                    "Government API %s is overloaded (concurrency limit %d reached)", endpoint, limiter.getLimit()));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            limiter.onIgnored();
+            rejections.increment();
+            throw new GovApiUnavailableException(String.format(
+                    "Government API %s is temporarily unavailable (circuit %s)", endpoint, circuitBreaker.getState()));
+        }
+
+        long started = System.nanoTime();
+        try {
+            T result = remoteCall.get();
+            recordSuccess(started);
+            return result;
+        } catch (HttpClientErrorException e) {
+            // A 4xx means the server is up and answering, except when it asks us to back off
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                recordFailure();
+            } else {
+                recordSuccess(started);
+            }
+            throw e;
+        } catch (RestClientException e) {
+            // I/O errors, timeouts and 5xx responses
+            recordFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            // The server answered but we could not use the answer (e.g. unparseable body)
+            circuitBreaker.onSuccess();
+            limiter.onIgnored();
+            successes.increment();
+            throw e;
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private void recordSuccess(long started) {
+        circuitBreaker.onSuccess();
+        limiter.onSuccess(System.nanoTime() - started);
+        successes.increment();
+    }
+
+    private void recordFailure() {
+        circuitBreaker.onFailure();
+        limiter.onFailure();
+        failures.increment();
+    }
+}
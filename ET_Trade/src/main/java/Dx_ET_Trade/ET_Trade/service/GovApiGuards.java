@@ -0,0 +1,44 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.config.GovApiResilienceProperties;
+import Dx_ET_Trade.ET_Trade.util.AdaptiveConcurrencyLimiter;
+import Dx_ET_Trade.ET_Trade.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one {@link GovApiGuard} per government API endpoint.
+ */
+@Service
+public class GovApiGuards {
+    private final GovApiResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GovApiGuard> guards = new ConcurrentHashMap<>();
+
+    public GovApiGuards(GovApiResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public GovApiGuard forEndpoint(String endpoint) {
+        return guards.computeIfAbsent(endpoint, this::createGuard);
+    }
+
+    private GovApiGuard createGuard(String endpoint) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                properties.getFailureRateThreshold(),
+                properties.getWindowSize(),
+                properties.getMinimumCalls(),
+                properties.getOpenDuration(),
+                properties.getHalfOpenCalls());
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                properties.getInitialLimit(),
+                properties.getMinLimit(),
+                properties.getMaxLimit(),
+                properties.getBackoffRatio(),
+                properties.getSlowCallThreshold().toNanos());
+        return new GovApiGuard(endpoint, circuitBreaker, limiter, meterRegistry);
+    }
+}
@@ -0,0 +1,108 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes government API responses for the lifetime of one inbound request,
+ * so the controller and the sync service never fetch the same document twice.
+ * Thread-safe, because per-license details are fetched concurrently: the
+ * first caller of a key fetches it outside the map, callers arriving
+ * meanwhile wait for its result. Failed fetches are not remembered.
+ */
+public class GovFetchContext {
+    private final GovApiClient govApiClient;
+    private final Map<String, CompletableFuture<GovRegistrationInfoDto>> registrationInfos = new ConcurrentHashMap<>();
+    private final Map<List<String>, CompletableFuture<GovBusinessDetailDto>> businessDetails = new ConcurrentHashMap<>();
+    private final List<ProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    // Last reported {processed, total}, replayed to listeners registered late
+    private volatile int[] lastProgress;
+
+    public GovFetchContext(GovApiClient govApiClient) {
+        this.govApiClient = govApiClient;
+    }
+
+    public GovRegistrationInfoDto getRegistrationInfoByTin(String tin) {
+        return memoized(registrationInfos, tin, () -> govApiClient.getRegistrationInfoByTin(tin));
+    }
+
+    public GovBusinessDetailDto getBusinessByLicenseNo(String licenseNo, String tin, String lang) {
+        return memoized(businessDetails, List.of(licenseNo, tin, lang),
+                () -> govApiClient.getBusinessByLicenseNo(licenseNo, tin, lang));
+    }
+
+    // The fetch runs outside the map (computeIfAbsent would hold its bin lock across the HTTP call)
+    private static <K, V> V memoized(Map<K, CompletableFuture<V>> responses, K key, Supplier<V> fetch) {
+        CompletableFuture<V> response = new CompletableFuture<>();
+        CompletableFuture<V> existing = responses.putIfAbsent(key, response);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = fetch.get();
+            response.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            responses.remove(key, response);
+            response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Registers a listener for license-level progress of the sync using this context.
+     * A listener registered after the sync started first receives its latest progress.
+     */
+    public GovFetchContext onProgress(ProgressListener listener) {
+        progressListeners.add(listener);
+        int[] last = lastProgress;
+        if (last != null) {
+            listener.onProgress(last[0], last[1]);
+        }
+        return this;
+    }
+
+    /**
+     * Forwards the progress of the sync using this context to the listeners of
+     * {@code follower}, a caller waiting for that sync instead of running its own.
+     */
+    void shareProgressWith(GovFetchContext follower) {
+        onProgress(follower::reportProgress);
+    }
+
+    void reportProgress(int processed, int total) {
+        lastProgress = new int[] {processed, total};
+        for (ProgressListener listener : progressListeners) {
+            listener.onProgress(processed, total);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        // Called from fetch threads; processed counts up to total
+        void onProgress(int processed, int total);
+    }
+}
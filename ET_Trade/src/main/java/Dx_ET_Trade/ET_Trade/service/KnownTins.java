@@ -0,0 +1,106 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of the TINs in company_customers. Built at startup
+ * and rebuilt every {@code known-tins.rebuild-interval}; until the first build
+ * every TIN may exist.
+ *
+ * A sync of a TIN the filter has not seen skips the database lookup and
+ * takes the new-customer path. A "no" is only as fresh as the last rebuild:
+ * customers created by other instances since then are missing, and a sync of
+ * one of those is found by the new-customer write, merged into the existing
+ * row and added here. That costs one government fetch the lookup would have
+ * saved, for customers created within the last rebuild interval.
+ */
+@Service
+public class KnownTins {
+    private static final Logger logger = LoggerFactory.getLogger(KnownTins.class);
+
+    @Autowired
+    private final CompanyCustomerRepository companyCustomerRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${known-tins.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${known-tins.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // The filter being rebuilt, so TINs added meanwhile land in both
+    private volatile BloomFilter building;
+
+    public KnownTins(CompanyCustomerRepository companyCustomerRepository,
+                     PlatformTransactionManager transactionManager) {
+        this.companyCustomerRepository = companyCustomerRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public boolean mightExist(String tin) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(tin);
+    }
+
+    // Call before a new customer is saved; a rolled-back save only costs a false positive
+    public void add(String tin) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(tin);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(tin);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${known-tins.rebuild-interval:PT6H}",
+               initialDelayString = "${known-tins.rebuild-interval:PT6H}")
+    public void rebuild() {
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+        building = next;
+        AtomicLong count = new AtomicLong();
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> tins = companyCustomerRepository.streamAllTins()) {
+                    tins.forEach(tin -> {
+                        next.add(tin);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            filter = next;
+        } finally {
+            building = null;
+        }
+
+        if (count.get() > expectedInsertions) {
+            logger.warn("Known TIN filter holds {} TINs, more than known-tins.expected-insertions ({}); " +
+                    "raise it to keep false positives near {}", count.get(), expectedInsertions, falsePositiveRate);
+        } else {
+            logger.info("Known TIN filter built with {} TINs", count.get());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.BusinessResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.model.RenewalRequest;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalRequestRepository;
+import Dx_ET_Trade.ET_Trade.util.OptimisticRetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Renews a single license: the target company_businesses row is updated,
+ * guarded by its {@code @Version}, along with the owner's renewal summary.
+ * A renewal that loses a race with a sync or another renewal is retried up
+ * to {@code renewal.max-attempts} times.
+ *
+ * With an Idempotency-Key, the key is recorded in the renewal's transaction
+ * and a retried POST with the same key is answered from the current row
+ * without renewing again. Keys are kept for {@code renewal.idempotency-ttl}.
+ */
+@Service
+public class LicenseRenewalService {
+    private static final Logger logger = LoggerFactory.getLogger(LicenseRenewalService.class);
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    @Autowired
+    private final CompanyCustomerRepository companyCustomerRepository;
+    @Autowired
+    private final RenewalRequestRepository renewalRequestRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry retry;
+
+    @Value("${renewal.idempotency-ttl:P1D}")
+    private Duration idempotencyTtl;
+
+    public LicenseRenewalService(CompanyCustomerRepository companyCustomerRepository,
+                                 RenewalRequestRepository renewalRequestRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${renewal.max-attempts:3}") int maxAttempts) {
+        this.companyCustomerRepository = companyCustomerRepository;
+        this.renewalRequestRepository = renewalRequestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retry = new OptimisticRetry(maxAttempts, 20);
+    }
+
+    /**
+     * @param tin            owner of the license; may be null when the licence number is unique
+     * @param idempotencyKey client-chosen key for safe retries, or null
+     */
+    public BusinessResponseDto renew(String licenseNo, String tin, LocalDate renewedTo, String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new Syncexception("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        String ownerTin = tin != null ? tin : findOwner(licenseNo);
+
+        try {
+            return retry.execute(() -> transactionTemplate.execute(
+                    status -> doRenew(licenseNo, ownerTin, renewedTo, idempotencyKey)));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            // A concurrent request with the same key committed first: answer as its retry
+            return transactionTemplate.execute(status -> doRenew(licenseNo, ownerTin, renewedTo, idempotencyKey));
+        }
+    }
+
+    private BusinessResponseDto doRenew(String licenseNo, String tin, LocalDate renewedTo, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<RenewalRequest> previous = renewalRequestRepository.findById(idempotencyKey);
+            if (previous.isPresent()) {
+                return replay(previous.get(), licenseNo, tin, renewedTo);
+            }
+        }
+
+        CompanyBusiness business = findBusiness(licenseNo, tin);
+        if (business.getRenewedTo() != null && renewedTo.isBefore(business.getRenewedTo())) {
+            throw new Syncexception("renewedTo " + renewedTo + " is before the current renewedTo " +
+                    business.getRenewedTo() + " of license: " + licenseNo);
+        }
+
+        // Managed entities: this license's row is updated on commit, and the customer
+        // row only if its renewal summary moved (the other businesses are not loaded)
+        LocalDate previousRenewedTo = business.getRenewedTo();
+        business.setRenewedTo(renewedTo);
+        business.setRenewalDate(LocalDate.now());
+        CompanyCustomer customer = findCustomer(tin);
+        companyCustomerRepository.updateRenewalSummary(customer, previousRenewedTo, renewedTo);
+
+        if (idempotencyKey != null) {
+            RenewalRequest request = new RenewalRequest();
+            request.setIdempotencyKey(idempotencyKey);
+            request.setTin(tin);
+            request.setLicenceNumber(licenseNo);
+            request.setRenewedTo(renewedTo);
+            request.setCreatedAt(Instant.now());
+            renewalRequestRepository.save(request);
+        }
+
+        logger.info("Renewed license {} of TIN {} to {}", licenseNo, tin, renewedTo);
+        return createResponse(customer, business, "License renewed to " + renewedTo);
+    }
+
+    private BusinessResponseDto replay(RenewalRequest previous, String licenseNo, String tin, LocalDate renewedTo) {
+        if (!previous.getLicenceNumber().equals(licenseNo) || !previous.getTin().equals(tin)
+                || !previous.getRenewedTo().equals(renewedTo)) {
+            throw new Syncexception("Idempotency-Key " + previous.getIdempotencyKey() + " was used for a different renewal");
+        }
+        CompanyBusiness business = findBusiness(licenseNo, tin);
+        return createResponse(findCustomer(tin), business, "License renewal already applied for this Idempotency-Key");
+    }
+
+    private String findOwner(String licenseNo) {
+        List<String> tins = companyCustomerRepository.findTinsByLicence(licenseNo);
+        if (tins.isEmpty()) {
+            throw new Syncexception("Business not found in company database for license: " + licenseNo);
+        }
+        if (tins.size() > 1) {
+            throw new Syncexception("License " + licenseNo + " is held by more than one customer; pass the tin");
+        }
+        return tins.get(0);
+    }
+
+    private CompanyBusiness findBusiness(String licenseNo, String tin) {
+        List<CompanyBusiness> matches = companyCustomerRepository.findBusinessesByTinAndLicence(tin, licenseNo);
+        if (matches.isEmpty()) {
+            throw new Syncexception("Business not found in company database for license: " + licenseNo);
+        }
+        return matches.get(0);
+    }
+
+    private CompanyCustomer findCustomer(String tin) {
+        return companyCustomerRepository.findByTin(tin)
+                .orElseThrow(() -> new Syncexception("Customer not found in company database for TIN: " + tin));
+    }
+
+    private BusinessResponseDto createResponse(CompanyCustomer customer, CompanyBusiness business, String message) {
+        BusinessResponseDto response = new BusinessResponseDto();
+        response.setTin(customer.getTin());
+        response.setBusinessName(customer.getBusinessName());
+        response.setMainGuid(business.getMainGuid());
+        response.setLicenceNumber(business.getLicenceNumber());
+        response.setTradeName(business.getTradesName());
+        response.setTradeNameAmh(business.getTradeNameAmh());
+        response.setRenewalDate(business.getRenewalDate());
+        response.setRenewedFrom(business.getRenewedFrom());
+        response.setRenewedTo(business.getRenewedTo());
+        response.setStatus(business.getStatus());
+        response.setRenewable(business.getRenewedTo() != null && business.getRenewedTo().isAfter(LocalDate.now()));
+        response.setMessage(message);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${renewal.idempotency-purge-interval:PT1H}",
+               initialDelayString = "${renewal.idempotency-purge-interval:PT1H}")
+    public void purgeExpiredIdempotencyKeys() {
+        Instant cutoff = Instant.now().minus(idempotencyTtl);
+        Integer purged = transactionTemplate.execute(status -> renewalRequestRepository.deleteCreatedBefore(cutoff));
+        if (purged != null && purged > 0) {
+            logger.debug("Purged {} renewal idempotency keys older than {}", purged, cutoff);
+        }
+    }
+}
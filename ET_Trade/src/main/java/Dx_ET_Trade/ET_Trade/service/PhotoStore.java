@@ -0,0 +1,56 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.model.AssociatePhoto;
+import Dx_ET_Trade.ET_Trade.repository.AssociatePhotoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed store for associate photos. Associates only keep the
+ * hash; the image is read when someone asks for it.
+ */
+@Service
+public class PhotoStore {
+
+    @Autowired
+    private final AssociatePhotoRepository associatePhotoRepository;
+
+    public PhotoStore(AssociatePhotoRepository associatePhotoRepository) {
+        this.associatePhotoRepository = associatePhotoRepository;
+    }
+
+    /**
+     * Stores a base64 photo unless the same content is already there and
+     * returns its hash, or null for an empty photo. Must run inside the
+     * caller's transaction.
+     */
+    public String store(String base64) {
+        if (base64 == null || base64.isBlank()) {
+            return null;
+        }
+        String data = base64.strip();
+        String hash = hash(data);
+        associatePhotoRepository.insertIfAbsent(hash, data, data.length(), Instant.now());
+        return hash;
+    }
+
+    public Optional<AssociatePhoto> find(String hash) {
+        return associatePhotoRepository.findById(hash);
+    }
+
+    static String hash(String data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.model.RenewalRefreshCheck;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalRefreshCheckRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Re-syncs customers whose licenses expire within {@code sync.renewal-refresh.window-days},
+ * off the request path, so interactive syncs almost always take the Rule 1 fast path.
+ * Customers are taken soonest expiry first and rechecked at most every
+ * {@code sync.renewal-refresh.recheck-after}.
+ *
+ * Customers with an expired license or one without expiry stay due until they
+ * renew, so they are refreshed in a separate, smaller pass
+ * ({@code sync.renewal-refresh.expired-max-per-run}), least recently checked
+ * first and at most every {@code sync.renewal-refresh.expired-recheck-after};
+ * however many there are, they cannot crowd out the window.
+ * Syncs are paced to at most {@code sync.renewal-refresh.max-per-minute}.
+ */
+@Service
+@ConditionalOnProperty(name = "sync.renewal-refresh.enabled", havingValue = "true")
+public class RenewalRefreshScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RenewalRefreshScheduler.class);
+
+    private final CompanyCustomerRepository companyCustomerRepository;
+    private final RenewalRefreshCheckRepository renewalRefreshCheckRepository;
+    private final SyncService syncService;
+
+    @Value("${sync.renewal-refresh.window-days:14}")
+    private int windowDays;
+
+    @Value("${sync.renewal-refresh.max-per-run:500}")
+    private int maxPerRun;
+
+    @Value("${sync.renewal-refresh.recheck-after:P1D}")
+    private Duration recheckAfter;
+
+    @Value("${sync.renewal-refresh.expired-max-per-run:100}")
+    private int expiredMaxPerRun;
+
+    @Value("${sync.renewal-refresh.expired-recheck-after:P7D}")
+    private Duration expiredRecheckAfter;
+
+    @Value("${sync.renewal-refresh.max-per-minute:30}")
+    private int maxPerMinute;
+
+    public RenewalRefreshScheduler(CompanyCustomerRepository companyCustomerRepository,
+                                   RenewalRefreshCheckRepository renewalRefreshCheckRepository,
+                                   SyncService syncService) {
+        this.companyCustomerRepository = companyCustomerRepository;
+        this.renewalRefreshCheckRepository = renewalRefreshCheckRepository;
+        this.syncService = syncService;
+    }
+
+    @Scheduled(fixedDelayString = "${sync.renewal-refresh.interval:PT1H}",
+               initialDelayString = "${sync.renewal-refresh.initial-delay:PT5M}")
+    public void refreshExpiringLicenses() {
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = today.plusDays(windowDays);
+        Instant now = Instant.now();
+
+        List<String> due = companyCustomerRepository.findTinsWithRenewalDueBetween(
+                today, cutoff, now.minus(recheckAfter), PageRequest.of(0, maxPerRun));
+        if (!due.isEmpty()) {
+            logger.info("Refreshing {} customers with licenses due for renewal by {}", due.size(), cutoff);
+            if (!refresh(due)) {
+                return;
+            }
+        }
+
+        List<String> expired = companyCustomerRepository.findTinsWithExpiredRenewal(
+                today, now.minus(expiredRecheckAfter), PageRequest.of(0, expiredMaxPerRun));
+        if (!expired.isEmpty()) {
+            logger.info("Refreshing {} customers with expired or undated licenses", expired.size());
+            refresh(expired);
+        }
+    }
+
+    // Returns false when interrupted
+    private boolean refresh(List<String> tins) {
+        long pauseMillis = 60_000L / Math.max(1, maxPerMinute);
+        int refreshed = 0;
+        int failed = 0;
+
+        try {
+            for (String tin : tins) {
+                long started = System.currentTimeMillis();
+                try {
+                    SyncResponseDto response = syncService.refreshCustomerData(tin);
+                    refreshed++;
+                    logger.debug("Refreshed TIN {}: {}", tin, response.getMessage());
+                } catch (Exception e) {
+                    failed++;
+                    logger.warn("Background refresh failed for TIN {}: {}", tin, e.getMessage());
+                }
+                // A failing TIN is not retried before its recheck is due either
+                renewalRefreshCheckRepository.save(new RenewalRefreshCheck(tin, Instant.now()));
+
+                // Rate limit: spread the syncs evenly over each minute
+                long remaining = pauseMillis - (System.currentTimeMillis() - started);
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            logger.info("Renewal refresh finished: {} refreshed, {} failed", refreshed, failed);
+        }
+    }
+}
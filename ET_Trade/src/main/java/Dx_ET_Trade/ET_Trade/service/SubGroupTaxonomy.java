@@ -0,0 +1,151 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.model.LicensingSubGroup;
+import Dx_ET_Trade.ET_Trade.repository.LicensingSubGroupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory view of the licensing_sub_groups taxonomy (code to description).
+ * The map is immutable and replaced as a whole, so readers never lock. It is
+ * loaded at startup, refreshed incrementally from rows whose updated_at moved,
+ * and updated when a committed sync added codes or renamed them.
+ */
+@Service
+public class SubGroupTaxonomy {
+    private static final Logger logger = LoggerFactory.getLogger(SubGroupTaxonomy.class);
+
+    // A row is stamped before its transaction commits; re-reading this far back catches late commits
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+    @Autowired
+    private final LicensingSubGroupRepository licensingSubGroupRepository;
+
+    private volatile Map<Integer, String> descriptions = Map.of();
+    private volatile Instant loadedUpTo;
+
+    public SubGroupTaxonomy(LicensingSubGroupRepository licensingSubGroupRepository) {
+        this.licensingSubGroupRepository = licensingSubGroupRepository;
+    }
+
+    public boolean contains(Integer code) {
+        return descriptions.containsKey(code);
+    }
+
+    public String describe(Integer code) {
+        return descriptions.get(code);
+    }
+
+    public Map<Integer, String> descriptions() {
+        return descriptions;
+    }
+
+    /**
+     * Makes sure the taxonomy has {@code code} with {@code description} and
+     * returns it. A known code with the same description costs nothing; a new
+     * code is inserted, and a description the government changed replaces the
+     * stored one (a null description never does). Must run inside the
+     * caller's transaction: the change is visible in memory once that
+     * transaction commits.
+     */
+    public Integer register(Integer code, String description) {
+        if (code == null || (contains(code) && unchanged(describe(code), description))) {
+            return code;
+        }
+        Map<Integer, String> pending = pendingInTransaction();
+        if (pending.containsKey(code) && unchanged(pending.get(code), description)) {
+            return code;
+        }
+
+        Instant now = Instant.now();
+        String stored = description;
+        if (contains(code) || pending.containsKey(code)) {
+            licensingSubGroupRepository.updateDescription(code, description, now);
+            logger.info("Subgroup {} renamed to: {}", code, description);
+        } else if (licensingSubGroupRepository.insertIfAbsent(code, description, now) == 0
+                && (description == null || licensingSubGroupRepository.updateDescription(code, description, now) == 0)) {
+            // Added elsewhere since the last refresh, with this description or none given here
+            stored = licensingSubGroupRepository.findById(code)
+                    .map(LicensingSubGroup::getDescription)
+                    .orElse(description);
+        }
+        pending.put(code, stored);
+        return code;
+    }
+
+    private static boolean unchanged(String stored, String description) {
+        return description == null || description.equals(stored);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${sub-group-taxonomy.refresh-interval:PT10M}",
+               initialDelayString = "${sub-group-taxonomy.refresh-interval:PT10M}")
+    public void refresh() {
+        Instant since = loadedUpTo;
+        List<LicensingSubGroup> rows = since == null
+                ? licensingSubGroupRepository.findAll()
+                : licensingSubGroupRepository.findByUpdatedAtAfter(since.minus(REFRESH_OVERLAP));
+
+        Map<Integer, String> changed = new HashMap<>();
+        Instant newest = since;
+        for (LicensingSubGroup row : rows) {
+            changed.put(row.getCode(), row.getDescription());
+            if (newest == null || row.getUpdatedAt().isAfter(newest)) {
+                newest = row.getUpdatedAt();
+            }
+        }
+        merge(changed);
+        loadedUpTo = newest != null ? newest : Instant.EPOCH;
+        logger.debug("Subgroup taxonomy refreshed: {} rows read, {} codes known", rows.size(), descriptions.size());
+    }
+
+    private synchronized void merge(Map<Integer, String> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> next = new HashMap<>(descriptions);
+        next.putAll(changed);
+        descriptions = Collections.unmodifiableMap(next);
+    }
+
+    // Codes added by the current transaction, published to the map after it commits
+    @SuppressWarnings("unchecked")
+    private Map<Integer, String> pendingInTransaction() {
+        Map<Integer, String> pending = (Map<Integer, String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Integer, String> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SubGroupTaxonomy.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+}
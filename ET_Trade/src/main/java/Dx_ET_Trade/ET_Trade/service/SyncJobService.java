@@ -0,0 +1,219 @@
+package Dx_ET_Trade.ET_Trade.service;
+import Dx_ET_Trade.ET_Trade.dto.SyncJobDto;
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import Dx_ET_Trade.ET_Trade.model.SyncJob;
+import Dx_ET_Trade.ET_Trade.model.SyncJobStatus;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.SyncJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs {@link SyncService#syncCustomerData} as a background job. Submitting
+ * returns immediately with a job id; the job row records status, license
+ * progress and the final result.
+ *
+ * Every unfinished job is leased to one instance, which renews the leases of
+ * its jobs every {@code sync.jobs.heartbeat-interval}. A job whose lease
+ * lapsed for {@code sync.jobs.lease} (its instance stopped) is claimed by
+ * exactly one other instance and run there; an instance that lost a job's
+ * lease does not start or finish it. License progress is written every
+ * {@code sync.jobs.progress-every} licenses. Finished jobs are purged after
+ * {@code sync.jobs.retention}.
+ */
+@Service
+public class SyncJobService {
+    private static final Logger logger = LoggerFactory.getLogger(SyncJobService.class);
+
+    private final SyncJobRepository syncJobRepository;
+    private final SyncService syncService;
+    private final GovApiClient govApiClient;
+    private final CompanyCustomerRepository companyCustomerRepository;
+    private final Executor syncJobExecutor;
+    private final Duration lease;
+    private final Duration retention;
+    private final int progressEvery;
+
+    // Lease owner id of this instance
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public SyncJobService(SyncJobRepository syncJobRepository,
+                          SyncService syncService,
+                          GovApiClient govApiClient,
+                          CompanyCustomerRepository companyCustomerRepository,
+                          @Qualifier("syncJobExecutor") Executor syncJobExecutor,
+                          @Value("${sync.jobs.lease:PT1M}") Duration lease,
+                          @Value("${sync.jobs.retention:P7D}") Duration retention,
+                          @Value("${sync.jobs.progress-every:10}") int progressEvery) {
+        this.syncJobRepository = syncJobRepository;
+        this.syncService = syncService;
+        this.govApiClient = govApiClient;
+        this.companyCustomerRepository = companyCustomerRepository;
+        this.syncJobExecutor = syncJobExecutor;
+        this.lease = lease;
+        this.retention = retention;
+        this.progressEvery = Math.max(1, progressEvery);
+    }
+
+    public SyncJobDto submit(String tin) {
+        if (tin == null || tin.trim().isEmpty()) {
+            throw new Syncexception("TIN cannot be null or empty");
+        }
+
+        Instant now = Instant.now();
+        SyncJob job = new SyncJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setTin(tin.trim());
+        job.setStatus(SyncJobStatus.QUEUED);
+        job.setCreatedAt(now);
+        job.setLeaseOwner(instanceId);
+        job.setLeaseExpiresAt(now.plus(lease));
+        syncJobRepository.save(job);
+
+        dispatch(job.getId());
+        logger.info("Queued sync job {} for TIN: {}", job.getId(), job.getTin());
+        return toDto(job);
+    }
+
+    public Optional<SyncJobDto> findJob(String id) {
+        return syncJobRepository.findById(id).map(this::toDto);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        resumeAbandonedJobs();
+    }
+
+    // Jobs left queued or running by an instance that stopped renewing their lease are run here
+    @Scheduled(fixedDelayString = "${sync.jobs.lease:PT1M}", initialDelayString = "${sync.jobs.lease:PT1M}")
+    public void resumeAbandonedJobs() {
+        Instant now = Instant.now();
+        List<SyncJob> abandoned = syncJobRepository.findAbandoned(now);
+        for (SyncJob job : abandoned) {
+            if (syncJobRepository.claim(job.getId(), instanceId, now, now.plus(lease)) == 1) {
+                logger.info("Resuming sync job {} for TIN: {}", job.getId(), job.getTin());
+                dispatch(job.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sync.jobs.heartbeat-interval:PT20S}")
+    public void renewLeases() {
+        syncJobRepository.renewLeases(instanceId, Instant.now().plus(lease));
+    }
+
+    @Scheduled(fixedDelayString = "${sync.jobs.purge-interval:PT1H}", initialDelayString = "${sync.jobs.purge-interval:PT1H}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        int purged = syncJobRepository.deleteFinishedBefore(cutoff);
+        if (purged > 0) {
+            logger.debug("Purged {} sync jobs finished before {}", purged, cutoff);
+        }
+    }
+
+    private void dispatch(String jobId) {
+        syncJobExecutor.execute(() -> run(jobId));
+    }
+
+    private void run(String jobId) {
+        if (syncJobRepository.start(jobId, instanceId, Instant.now()) == 0) {
+            logger.info("Sync job {} finished or was taken over by another instance before it ran here", jobId);
+            return;
+        }
+        SyncJob job = syncJobRepository.findById(jobId).orElseThrow();
+
+        BatchedProgress progress = new BatchedProgress(jobId);
+        int finished;
+        try {
+            GovFetchContext fetchContext = new GovFetchContext(govApiClient).onProgress(progress);
+            SyncResponseDto result = syncService.syncCustomerData(job.getTin(), fetchContext);
+
+            Integer licenses = progress.total();
+            if (licenses == null) {
+                // Answered from the stored licenses (Rule 1) or by a sync another caller had started
+                licenses = (int) companyCustomerRepository.countBusinessesByTin(job.getTin());
+            }
+            finished = syncJobRepository.succeed(jobId, instanceId, licenses, result.getBusinessName(),
+                    result.getStatus(), result.getRenewedTo(), result.isRenewable(), result.getMessage(),
+                    Instant.now());
+        } catch (Exception e) {
+            logger.error("Sync job {} for TIN {} failed: {}", jobId, job.getTin(), e.getMessage());
+            progress.flush();
+            finished = syncJobRepository.fail(jobId, instanceId, truncate(e.getMessage(), 2000), Instant.now());
+        }
+        if (finished == 0) {
+            logger.warn("Sync job {} was taken over by another instance while it ran here", jobId);
+        }
+    }
+
+    /**
+     * Writes the progress of one job when it reached {@code progressEvery} more
+     * licenses than last written, and always its first and final counts.
+     * Detail fetches report from several threads, so calls are serialized.
+     */
+    private class BatchedProgress implements GovFetchContext.ProgressListener {
+        private final String jobId;
+        private int processed = -1;
+        private int total;
+        private int written = -1;
+
+        BatchedProgress(String jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public synchronized void onProgress(int processed, int total) {
+            if (processed <= this.processed) {
+                return;
+            }
+            this.processed = processed;
+            this.total = total;
+            if (written < 0 || processed >= total || processed - written >= progressEvery) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (processed > written) {
+                syncJobRepository.updateProgress(jobId, processed, total);
+                written = processed;
+            }
+        }
+
+        synchronized Integer total() {
+            return processed < 0 ? null : total;
+        }
+    }
+
+    private SyncJobDto toDto(SyncJob job) {
+        SyncResponseDto result = null;
+        if (job.getStatus() == SyncJobStatus.SUCCEEDED) {
+            result = new SyncResponseDto(job.getTin(), job.getBusinessName(), job.getResultStatus(),
+                    job.getRenewedTo(), Boolean.TRUE.equals(job.getRenewable()), job.getMessage());
+        }
+        return new SyncJobDto(job.getId(), job.getTin(), job.getStatus().name(),
+                job.getProcessedLicenses(), job.getTotalLicenses(), result, job.getError(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+}
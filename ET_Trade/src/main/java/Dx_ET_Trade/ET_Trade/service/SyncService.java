@@ -1,162 +1,366 @@
 package Dx_ET_Trade.ET_Trade.service;
 import Dx_ET_Trade.ET_Trade.dto.*;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
 import Dx_ET_Trade.ET_Trade.exception.Syncexception;
 import Dx_ET_Trade.ET_Trade.model.*;
 import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.util.OptimisticRetry;
+import Dx_ET_Trade.ET_Trade.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SyncService {
     private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
 
+    // Tag values of the sync.phase timer and sync.conflicts counter
+    private static final String CUSTOMER = "customer";
+    private static final String LICENSE = "license";
+
     @Autowired
     private final CompanyCustomerRepository companyCustomerRepository;
     @Autowired
-    private final GovApiClientService govApiClientService;
+    private final GovApiClient govApiClient;
+    @Autowired
+    private final BusinessDetailFetcher businessDetailFetcher;
+    @Autowired
+    private final PhotoStore photoStore;
+    @Autowired
+    private final SubGroupTaxonomy subGroupTaxonomy;
+    @Autowired
+    private final KnownTins knownTins;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final OptimisticRetry writeRetry;
+
+    // Concurrent syncs of the same TIN / license share one in-flight run
+    private final SingleFlight<String, SyncResponseDto> customerSyncs = new SingleFlight<>();
+    private final SingleFlight<List<String>, SyncResponseDto> businessUpdates = new SingleFlight<>();
+    // Fetch context of the running customer sync of each TIN, whose progress waiting callers follow
+    private final Map<String, GovFetchContext> runningCustomerSyncs = new ConcurrentHashMap<>();
 
     public SyncService(CompanyCustomerRepository companyCustomerRepository,
-                       GovApiClientService govApiClientService) {
+                       GovApiClient govApiClient,
+                       BusinessDetailFetcher businessDetailFetcher,
+                       PhotoStore photoStore,
+                       SubGroupTaxonomy subGroupTaxonomy,
+                       KnownTins knownTins,
+                       PlatformTransactionManager transactionManager,
+                       EntityManagerFactory entityManagerFactory,
+                       MeterRegistry meterRegistry,
+                       @Value("${sync.write.max-attempts:3}") int writeMaxAttempts) {
         this.companyCustomerRepository = companyCustomerRepository;
-        this.govApiClientService = govApiClientService;
+        this.govApiClient = govApiClient;
+        this.businessDetailFetcher = businessDetailFetcher;
+        this.photoStore = photoStore;
+        this.subGroupTaxonomy = subGroupTaxonomy;
+        this.knownTins = knownTins;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.writeRetry = new OptimisticRetry(writeMaxAttempts, 20);
     }
 
-    @Transactional
     public SyncResponseDto syncCustomerData(String tin) {
-        // Rule 1: Check if customer exists in company database
-        Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
+        return syncCustomerData(tin, new GovFetchContext(govApiClient));
+    }
 
-        if (existingCustomerOpt.isPresent()) {
-            CompanyCustomer existingCustomer = existingCustomerOpt.get();
-            
-            // Check if any business license is expired by comparing RenewedTo with current date
-            boolean hasExpiredLicense = existingCustomer.getBusinesses().stream()
-                    .anyMatch(business -> business.getRenewedTo() == null ||
-                            business.getRenewedTo().isBefore(LocalDate.now()));
-
-            if (!hasExpiredLicense) {
-                // Rule 1: All licenses are valid, return existing data
-                return createResponse(existingCustomer, "Data exists with valid licenses", false);
-            } else {
-                // Rule 2: Some licenses expired, check government DB
-                return handleExpiredLicenses(existingCustomer, tin);
+    /**
+     * Same as {@link #syncCustomerData(String)}, reusing any government responses
+     * the caller already fetched through {@code fetchContext}.
+     *
+     * Callers that arrive while a sync of the same TIN is running wait for it and
+     * get its response, so a burst of requests results in one sync and one save.
+     * Their {@code fetchContext} receives the progress of the running sync.
+     * Transactions are opened inside the coalesced call, so waiting callers do
+     * not hold a database connection.
+     */
+    public SyncResponseDto syncCustomerData(String tin, GovFetchContext fetchContext) {
+        return coalescedCustomerSync(tin, fetchContext, false);
+    }
+
+    /**
+     * Re-syncs an existing customer's licenses from the government API even
+     * though none has expired yet (the Rule 2 path, forced). Used by the
+     * background renewal refresher; shares in-flight runs with syncCustomerData.
+     */
+    public SyncResponseDto refreshCustomerData(String tin) {
+        return coalescedCustomerSync(tin, new GovFetchContext(govApiClient), true);
+    }
+
+    private SyncResponseDto coalescedCustomerSync(String tin, GovFetchContext fetchContext, boolean forceRefresh) {
+        GovFetchContext running = runningCustomerSyncs.get(tin);
+        if (running != null) {
+            running.shareProgressWith(fetchContext);
+        }
+        return customerSyncs.execute(tin, () -> {
+            runningCustomerSyncs.put(tin, fetchContext);
+            try {
+                return runCustomerSync(tin, fetchContext, forceRefresh);
+            } finally {
+                runningCustomerSyncs.remove(tin, fetchContext);
+            }
+        });
+    }
+
+    /**
+     * A customer sync runs in three phases so that no database connection is
+     * held while the government API is called:
+     * <ol>
+     *   <li>snapshot: a short read-only transaction decides the rule; Rule 1
+     *       is answered from it directly</li>
+     *   <li>fetch: registration info and license details are fetched with no
+     *       transaction open</li>
+     *   <li>write: a short transaction reloads the customer, checks it against
+     *       the snapshot and applies the fetched data</li>
+     * </ol>
+     * Each phase is timed as {@code sync.phase}; snapshot plus write is the
+     * time a sync holds a pooled connection. A write that loses a race on a
+     * {@code @Version} column is re-run (reloading the rows) up to
+     * {@code sync.write.max-attempts} times.
+     */
+    private SyncResponseDto runCustomerSync(String tin, GovFetchContext fetchContext, boolean forceRefresh) {
+        if (!forceRefresh && !knownTins.mightExist(tin)) {
+            // Rule 3 without a snapshot: a TIN the filter has never seen is new. The filter misses
+            // customers other instances created since its last rebuild; the write transaction
+            // finds those and merges into them instead of inserting a duplicate.
+            return syncNewCustomer(tin, fetchContext);
+        }
+        CustomerSnapshot snapshot = timed(CUSTOMER, "snapshot",
+                () -> readOnlyTransactionTemplate.execute(status -> takeSnapshot(tin, forceRefresh)));
+
+        if (snapshot.validResponse() != null) {
+            // Rule 1: All licenses are valid, return existing data
+            return snapshot.validResponse();
+        }
+        if (snapshot.customerId() == null) {
+            if (forceRefresh) {
+                throw new Syncexception("Customer not found in company database for TIN: " + tin);
             }
-        } else {
             // Rule 3: Customer doesn't exist in company DB, fetch from government DB
-            return handleNewCustomer(tin);
+            return syncNewCustomer(tin, fetchContext);
         }
+        // Rule 2: Some licenses expired (or a refresh was asked for), check government DB
+        return syncExistingCustomer(tin, snapshot, fetchContext);
     }
 
-    private SyncResponseDto handleNewCustomer(String tin) {
-        List<String> failedLicenses = new ArrayList<>();
-        
+    private CustomerSnapshot takeSnapshot(String tin, boolean forceRefresh) {
+        // Rule 1: Check if customer exists in company database. The customer row carries the
+        // renewal summary, so a customer with valid licenses is answered without its businesses.
+        Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
+        if (existingCustomerOpt.isEmpty()) {
+            return CustomerSnapshot.ABSENT;
+        }
+
+        CompanyCustomer existingCustomer = existingCustomerOpt.get();
+        if (!existingCustomer.hasExpiredLicense(LocalDate.now()) && !forceRefresh) {
+            return new CustomerSnapshot(existingCustomer.getId(), Map.of(), Map.of(),
+                    createResponse(existingCustomer, "Data exists with valid licenses", false));
+        }
+        return new CustomerSnapshot(existingCustomer.getId(),
+                CustomerSnapshot.renewedToByBusiness(existingCustomer),
+                CustomerSnapshot.datesByLicence(existingCustomer), null);
+    }
+
+    /**
+     * What the sync saw of an existing customer before fetching: its id and
+     * each business's renewedTo. If the customer differs when the write
+     * transaction reloads it, another writer got there in the meantime.
+     * The dates by licence number decide which licenses need a detail fetch.
+     */
+    private record CustomerSnapshot(Long customerId, Map<Long, LocalDate> renewedTo,
+                                    Map<String, LicenseDates> licenses, SyncResponseDto validResponse) {
+
+        static final CustomerSnapshot ABSENT = new CustomerSnapshot(null, Map.of(), Map.of(), null);
+
+        static Map<Long, LocalDate> renewedToByBusiness(CompanyCustomer customer) {
+            Map<Long, LocalDate> renewedTo = new HashMap<>();
+            for (CompanyBusiness business : customer.getBusinesses()) {
+                renewedTo.put(business.getId(), business.getRenewedTo());
+            }
+            return renewedTo;
+        }
+
+        static Map<String, LicenseDates> datesByLicence(CompanyCustomer customer) {
+            Map<String, LicenseDates> licenses = new HashMap<>();
+            for (CompanyBusiness business : customer.getBusinesses()) {
+                if (business.getLicenceNumber() != null) {
+                    licenses.putIfAbsent(business.getLicenceNumber(),
+                            new LicenseDates(business.getRenewedTo(), business.getRenewalDate(),
+                                    business.isBasicInfoOnly()));
+                }
+            }
+            return licenses;
+        }
+
+        boolean matches(CompanyCustomer current) {
+            return current.getId().equals(customerId) && renewedToByBusiness(current).equals(renewedTo);
+        }
+
+        /**
+         * The government licenses worth a detail fetch: those missing locally,
+         * expired (or without expiry) locally, stored from basic info only, or
+         * whose listed renewedTo or renewalDate differs from the stored row.
+         * The others are left as stored.
+         */
+        List<GovBusinessDto> needingDetail(List<GovBusinessDto> govBusinesses, LocalDate today) {
+            List<GovBusinessDto> stale = new ArrayList<>();
+            for (GovBusinessDto govBusiness : govBusinesses) {
+                LicenseDates stored = licenses.get(govBusiness.getLicenceNumber());
+                if (stored == null || stored.basicInfoOnly()
+                        || stored.renewedTo() == null || stored.renewedTo().isBefore(today)
+                        || !Objects.equals(stored.renewedTo(), GovApiClientService.parseDate(govBusiness.getRenewedTo()))
+                        || !Objects.equals(stored.renewalDate(), GovApiClientService.parseDate(govBusiness.getRenewalDate()))) {
+                    stale.add(govBusiness);
+                }
+            }
+            return stale;
+        }
+    }
+
+    private record LicenseDates(LocalDate renewedTo, LocalDate renewalDate, boolean basicInfoOnly) {
+    }
+
+    private SyncResponseDto syncNewCustomer(String tin, GovFetchContext fetchContext) {
         try {
             // Step 1: Fetch initial customer data from first API
-            GovRegistrationInfoDto govInfo = govApiClientService.getRegistrationInfoByTin(tin);
+            GovRegistrationInfoDto govInfo = timed(CUSTOMER, "fetch", () -> fetchContext.getRegistrationInfoByTin(tin));
 
             if (govInfo == null) {
                 throw new Syncexception("Customer not found in government database");
             }
 
-            // Create new customer from government data
-            CompanyCustomer newCustomer = new CompanyCustomer();
-            newCustomer.setTin(tin);
-            newCustomer.setLegalCondition(govInfo.getLegalCondtion());
-            newCustomer.setRegNo(govInfo.getRegNo());
-            newCustomer.setRegDate(GovApiClientService.parseDate(govInfo.getRegDate()));
-            newCustomer.setBusinessName(govInfo.getBusinessName());
-            newCustomer.setBusinessNameAmh(govInfo.getBusinessNameAmh());
-            newCustomer.setPaidUpCapital(govInfo.getPaidUpCapital());
-
-            // Initialize lists
-            newCustomer.setAssociates(new ArrayList<>());
-            newCustomer.setBusinesses(new ArrayList<>());
-
-            // Map associates
-            if (govInfo.getAssociateShortInfos() != null) {
-                govInfo.getAssociateShortInfos().stream()
-                        .map(this::createAssociateFromGovData)
-                        .forEach(newCustomer.getAssociates()::add);
-            }
-
             // Step 2: For each business, try to get detailed info from second API
-            if (govInfo.getBusinesses() != null) {
-                for (GovBusinessDto govBusiness : govInfo.getBusinesses()) {
-                    try {
-                        String licenseNo = govBusiness.getLicenceNumber();
-                        if (licenseNo == null || licenseNo.trim().isEmpty()) {
-                            logger.warn("Skipping business with null or empty license number for TIN: {}", tin);
-                            continue;
-                        }
-
-                        logger.info("Processing business with license: {}", licenseNo);
-                        
-                        // First try to get detailed business info from second API
-                        GovBusinessDetailDto detail = null;
-                        try {
-                            detail = govApiClientService.getBusinessByLicenseNo(licenseNo, tin, "en");
-                            logger.info("Successfully fetched detailed info for business with license: {}", licenseNo);
-                        } catch (Exception e) {
-                            logger.warn("Failed to fetch detailed info for business {}: {}. Will use basic info instead.", 
-                                licenseNo, e.getMessage());
-                        }
-
-                        // Create business from either detailed or basic info
-                        CompanyBusiness business;
-                        if (detail != null) {
-                            business = createBusinessFromGovData(detail);
-                            logger.info("Created business from detailed info for license: {}", licenseNo);
-                        } else {
-                            business = createBusinessFromBasicInfo(govBusiness);
-                            logger.info("Created business from basic info for license: {}", licenseNo);
-                        }
-                        
-                        newCustomer.getBusinesses().add(business);
-                    } catch (Exception e) {
-                        String licenseNo = govBusiness.getLicenceNumber();
-                        failedLicenses.add(licenseNo);
-                        logger.error("Failed to process business {}: {}", licenseNo, e.getMessage());
-                    }
+            List<BusinessDetailFetcher.FetchResult> fetched = govInfo.getBusinesses() == null ? null :
+                    timed(CUSTOMER, "fetch", () -> businessDetailFetcher.fetchAll(fetchContext, tin, govInfo.getBusinesses(),
+                            govInfo.getBusinesses().size(), "en"));
+
+            return timed(CUSTOMER, "write", () -> writeRetry.execute(() -> transactionTemplate.execute(status -> {
+                Optional<CompanyCustomer> createdMeanwhile = companyCustomerRepository.findWithBusinessesByTin(tin);
+                if (createdMeanwhile.isPresent()) {
+                    // Another writer created the customer while we fetched, or a stale TIN filter
+                    // sent an existing customer here: merge into it instead
+                    recordConflict(CUSTOMER, tin);
+                    knownTins.add(tin);
+                    return applyExistingCustomer(createdMeanwhile.get(), govInfo, fetched != null ? fetched : List.of());
                 }
-                
-                // If all licenses failed, throw exception
-                if (failedLicenses.size() == govInfo.getBusinesses().size()) {
-                    throw new Syncexception("Failed to process all businesses: " + 
-                        String.join(", ", failedLicenses));
-                }
-                
-                // If some licenses failed, log warning
-                if (!failedLicenses.isEmpty()) {
-                    logger.warn("Failed to process some businesses: {}", 
-                        String.join(", ", failedLicenses));
+                return applyNewCustomer(tin, govInfo, fetched);
+            })));
+        } catch (Exception e) {
+            throw syncFailure("Failed to create new customer: ", e);
+        }
+    }
+
+    private SyncResponseDto applyNewCustomer(String tin, GovRegistrationInfoDto govInfo,
+                                             List<BusinessDetailFetcher.FetchResult> fetched) {
+        List<String> failedLicenses = new ArrayList<>();
+        // Create new customer from government data
+        CompanyCustomer newCustomer = new CompanyCustomer();
+        newCustomer.setTin(tin);
+        newCustomer.setLegalCondition(govInfo.getLegalCondtion());
+        newCustomer.setRegNo(govInfo.getRegNo());
+        newCustomer.setRegDate(GovApiClientService.parseDate(govInfo.getRegDate()));
+        newCustomer.setBusinessName(govInfo.getBusinessName());
+        newCustomer.setBusinessNameAmh(govInfo.getBusinessNameAmh());
+        newCustomer.setPaidUpCapital(govInfo.getPaidUpCapital());
+
+        // Initialize lists
+        newCustomer.setAssociates(new ArrayList<>());
+        newCustomer.setBusinesses(new ArrayList<>());
+
+        // Map associates
+        if (govInfo.getAssociateShortInfos() != null) {
+            govInfo.getAssociateShortInfos().stream()
+                    .map(this::createAssociateFromGovData)
+                    .forEach(newCustomer.getAssociates()::add);
+        }
+
+        // Map the fetched businesses
+        if (fetched != null) {
+            for (BusinessDetailFetcher.FetchResult result : fetched) {
+                String licenseNo = result.getLicenseNo();
+                try {
+                    logger.info("Processing business with license: {}", licenseNo);
+
+                    // Create business from either detailed or basic info
+                    CompanyBusiness business;
+                    if (result.getDetail() != null) {
+                        business = createBusinessFromGovData(result.getDetail());
+                        logger.info("Created business from detailed info for license: {}", licenseNo);
+                    } else {
+                        business = createBusinessFromBasicInfo(result.getGovBusiness());
+                        logger.info("Created business from basic info for license: {}", licenseNo);
+                    }
+                    
+                    newCustomer.getBusinesses().add(business);
+                } catch (Exception e) {
+                    failedLicenses.add(licenseNo);
+                    logger.error("Failed to process business {}: {}", licenseNo, e.getMessage());
                 }
             }
+            
+            // If all licenses failed, throw exception
+            if (failedLicenses.size() == govInfo.getBusinesses().size()) {
+                throw new Syncexception("Failed to process all businesses: " + 
+                    String.join(", ", failedLicenses));
+            }
+            
+            // If some licenses failed, log warning
+            if (!failedLicenses.isEmpty()) {
+                logger.warn("Failed to process some businesses: {}", 
+                    String.join(", ", failedLicenses));
+            }
+        }
 
-            // Save new customer
-            companyCustomerRepository.save(newCustomer);
+        // Save new customer
+        updateSearchText(newCustomer);
+        newCustomer.summarizeRenewals();
+        knownTins.add(tin);
+        companyCustomerRepository.save(newCustomer);
+        evictAfterCommit(newCustomer, newCustomer.getBusinesses());
 
-            // Check if all licenses are renewable
-            boolean allRenewable = newCustomer.getBusinesses().stream()
-                    .allMatch(business -> business.getRenewedTo() != null &&
-                            business.getRenewedTo().isAfter(LocalDate.now()));
+        // Check if all licenses are renewable
+        boolean allRenewable = !newCustomer.isUnknownExpiry() && (newCustomer.getEarliestRenewedTo() == null ||
+                newCustomer.getEarliestRenewedTo().isAfter(LocalDate.now()));
 
-            String message = failedLicenses.isEmpty() ? 
-                "Successfully added new customer" :
-                "Added new customer with some businesses using basic info";
+        String message = failedLicenses.isEmpty() ? 
+            "Successfully added new customer" :
+            "Added new customer with some businesses using basic info";
 
-            return createResponse(newCustomer, message, allRenewable);
-        } catch (Exception e) {
-            throw new Syncexception("Failed to create new customer: " + e.getMessage());
-        }
+        return createResponse(newCustomer, message, allRenewable);
     }
 
     private CompanyBusiness createBusinessFromBasicInfo(GovBusinessDto govBusiness) {
@@ -171,6 +375,7 @@ public class SyncService {
         business.setRenewalDate(GovApiClientService.parseDate(govBusiness.getRenewalDate()));
         business.setRenewedFrom(GovApiClientService.parseDate(govBusiness.getRenewedFrom()));
         business.setRenewedTo(GovApiClientService.parseDate(govBusiness.getRenewedTo()));
+        business.setBasicInfoOnly(true);
         
         // Set default values for missing fields
         business.setStatus(1); // Active status
@@ -178,12 +383,7 @@ public class SyncService {
 
         // Map subgroups if available
         if (govBusiness.getSubGroups() != null && !govBusiness.getSubGroups().isEmpty()) {
-            List<BusinessSubGroup> subGroups = govBusiness.getSubGroups().stream()
-                    .map(this::createSubGroupFromSimpleDto)
-                    .collect(Collectors.toList());
-            business.setSubGroups(subGroups);
-        } else {
-            business.setSubGroups(new ArrayList<>());
+            business.setSubGroupCodes(subGroupCodesFromSimpleDtos(govBusiness.getSubGroups()));
         }
 
         // Create empty address
@@ -192,80 +392,107 @@ public class SyncService {
         return business;
     }
 
-    private SyncResponseDto handleExpiredLicenses(CompanyCustomer existingCustomer, String tin) {
+    private SyncResponseDto syncExistingCustomer(String tin, CustomerSnapshot snapshot,
+                                                 GovFetchContext fetchContext) {
         try {
             // Step 1: Fetch initial customer data from first API
-            GovRegistrationInfoDto govInfo = govApiClientService.getRegistrationInfoByTin(tin);
+            GovRegistrationInfoDto govInfo = timed(CUSTOMER, "fetch", () -> fetchContext.getRegistrationInfoByTin(tin));
 
             if (govInfo == null) {
                 throw new Syncexception("Customer not found in government database");
             }
 
-            // Update businesses with government data
-            for (GovBusinessDto govBusiness : govInfo.getBusinesses()) {
-                String govLicenseNo = govBusiness.getLicenceNumber();
-                
-                if (govLicenseNo == null || govLicenseNo.trim().isEmpty()) {
-                    logger.warn("Skipping business with null or empty license number for TIN: {}", tin);
-                    continue;
+            // Step 2: Get detailed business info from second API, for the licenses that need it, all at once
+            List<GovBusinessDto> govBusinesses = govInfo.getBusinesses() != null ? govInfo.getBusinesses() : List.of();
+            List<GovBusinessDto> stale = snapshot.needingDetail(govBusinesses, LocalDate.now());
+            recordDetailFetches(stale.size(), govBusinesses.size() - stale.size());
+            List<BusinessDetailFetcher.FetchResult> fetched =
+                    timed(CUSTOMER, "fetch", () -> businessDetailFetcher.fetchAll(fetchContext, tin, stale,
+                            govBusinesses.size(), "en"));
+
+            return timed(CUSTOMER, "write", () -> writeRetry.execute(() -> transactionTemplate.execute(status -> {
+                CompanyCustomer existingCustomer = companyCustomerRepository.findWithBusinessesByTin(tin)
+                        .orElseThrow(() -> new Syncexception("Customer not found in company database for TIN: " + tin));
+                if (!snapshot.matches(existingCustomer)) {
+                    // Changed by another writer while we fetched: the fetched data is applied on top
+                    recordConflict(CUSTOMER, tin);
                 }
+                return applyExistingCustomer(existingCustomer, govInfo, fetched);
+            })));
+        } catch (Exception e) {
+            throw syncFailure("Failed to update expired licenses: ", e);
+        }
+    }
 
-                try {
-                    // Step 2: Get detailed business info from second API
-                    GovBusinessDetailDto businessDetail = govApiClientService.getBusinessByLicenseNo(govLicenseNo, tin, "en");
+    private SyncResponseDto applyExistingCustomer(CompanyCustomer existingCustomer, GovRegistrationInfoDto govInfo,
+                                                  List<BusinessDetailFetcher.FetchResult> fetched) {
+        // Addresses and subgroups are about to be updated: load them in one select
+        companyCustomerRepository.fetchBusinessDetails(existingCustomer.getId());
+
+        // Update businesses with government data
+        for (BusinessDetailFetcher.FetchResult result : fetched) {
+            String govLicenseNo = result.getLicenseNo();
+
+            if (result.getError() != null) {
+                logger.error("Failed to process business with license {}: {}", govLicenseNo, result.getError().getMessage());
+                // Continue with next business instead of failing the entire sync
+                continue;
+            }
+
+            try {
+                GovBusinessDto govBusiness = result.getGovBusiness();
+                GovBusinessDetailDto businessDetail = result.getDetail();
+                
+                // Find matching business in company DB or create new
+                Optional<CompanyBusiness> existingBusinessOpt = existingCustomer.getBusinesses().stream()
+                        .filter(b -> {
+                            String existingLicense = b.getLicenceNumber();
+                            return existingLicense != null && existingLicense.equals(govLicenseNo);
+                        })
+                        .findFirst();
+
+                if (existingBusinessOpt.isPresent()) {
+                    // Update existing business
+                    CompanyBusiness existingBusiness = existingBusinessOpt.get();
+                    logger.info("Updating existing business with license: {}", govLicenseNo);
                     
-                    // Find matching business in company DB or create new
-                    Optional<CompanyBusiness> existingBusinessOpt = existingCustomer.getBusinesses().stream()
-                            .filter(b -> {
-                                String existingLicense = b.getLicenceNumber();
-                                return existingLicense != null && existingLicense.equals(govLicenseNo);
-                            })
-                            .findFirst();
-
-                    if (existingBusinessOpt.isPresent()) {
-                        // Update existing business
-                        CompanyBusiness existingBusiness = existingBusinessOpt.get();
-                        logger.info("Updating existing business with license: {}", govLicenseNo);
-                        
-                        if (businessDetail != null) {
-                            updateBusinessFromGovData(existingBusiness, businessDetail);
-                        } else {
-                            // If detailed info not available, update with basic info
-                            updateBusinessFromBasicInfo(existingBusiness, govBusiness);
-                        }
+                    if (businessDetail != null) {
+                        updateBusinessFromGovData(existingBusiness, businessDetail);
                     } else {
-                        // Add new business
-                        logger.info("Adding new business with license: {}", govLicenseNo);
-                        CompanyBusiness newBusiness;
-                        if (businessDetail != null) {
-                            newBusiness = createBusinessFromGovData(businessDetail);
-                        } else {
-                            newBusiness = createBusinessFromBasicInfo(govBusiness);
-                        }
-                        existingCustomer.getBusinesses().add(newBusiness);
+                        // If detailed info not available, update with basic info
+                        updateBusinessFromBasicInfo(existingBusiness, govBusiness);
                     }
-                } catch (Exception e) {
-                    logger.error("Failed to process business with license {}: {}", govLicenseNo, e.getMessage());
-                    // Continue with next business instead of failing the entire sync
+                } else {
+                    // Add new business
+                    logger.info("Adding new business with license: {}", govLicenseNo);
+                    CompanyBusiness newBusiness;
+                    if (businessDetail != null) {
+                        newBusiness = createBusinessFromGovData(businessDetail);
+                    } else {
+                        newBusiness = createBusinessFromBasicInfo(govBusiness);
+                    }
+                    existingCustomer.getBusinesses().add(newBusiness);
                 }
+            } catch (Exception e) {
+                logger.error("Failed to process business with license {}: {}", govLicenseNo, e.getMessage());
+                // Continue with next business instead of failing the entire sync
             }
+        }
 
-            // Save updated customer
-            companyCustomerRepository.save(existingCustomer);
+        // Save updated customer
+        updateSearchText(existingCustomer);
+        existingCustomer.summarizeRenewals();
+        companyCustomerRepository.save(existingCustomer);
+        evictAfterCommit(existingCustomer, existingCustomer.getBusinesses());
 
-            // Check if any license is still expired after update
-            boolean hasExpiredLicense = existingCustomer.getBusinesses().stream()
-                    .anyMatch(business -> business.getRenewedTo() == null ||
-                            business.getRenewedTo().isBefore(LocalDate.now()));
+        // Check if any license is still expired after update
+        boolean hasExpiredLicense = existingCustomer.hasExpiredLicense(LocalDate.now());
 
-            String statusMessage = hasExpiredLicense ?
-                    "Updated but some licenses are expired or not renewable" :
-                    "Successfully updated with renewable licenses";
+        String statusMessage = hasExpiredLicense ?
+                "Updated but some licenses are expired or not renewable" :
+                "Successfully updated with renewable licenses";
 
-            return createResponse(existingCustomer, statusMessage, !hasExpiredLicense);
-        } catch (Exception e) {
-            throw new Syncexception("Failed to update expired licenses: " + e.getMessage());
-        }
+        return createResponse(existingCustomer, statusMessage, !hasExpiredLicense);
     }
 
     private void updateBusinessFromBasicInfo(CompanyBusiness existingBusiness, GovBusinessDto govBusiness) {
@@ -277,15 +504,11 @@ public class SyncService {
         existingBusiness.setRenewalDate(GovApiClientService.parseDate(govBusiness.getRenewalDate()));
         existingBusiness.setRenewedFrom(GovApiClientService.parseDate(govBusiness.getRenewedFrom()));
         existingBusiness.setRenewedTo(GovApiClientService.parseDate(govBusiness.getRenewedTo()));
+        existingBusiness.setBasicInfoOnly(true);
 
         // Update subgroups if available
         if (govBusiness.getSubGroups() != null && !govBusiness.getSubGroups().isEmpty()) {
-            List<BusinessSubGroup> newSubGroups = govBusiness.getSubGroups().stream()
-                    .map(this::createSubGroupFromSimpleDto)
-                    .collect(Collectors.toList());
-            
-            existingBusiness.getSubGroups().clear();
-            existingBusiness.getSubGroups().addAll(newSubGroups);
+            applySubGroups(existingBusiness, subGroupCodesFromSimpleDtos(govBusiness.getSubGroups()));
         }
     }
 
@@ -294,7 +517,7 @@ public class SyncService {
         associate.setPosition(govAssociate.getPosition());
         associate.setManagerName(govAssociate.getManagerName());
         associate.setManagerNameEng(govAssociate.getManagerNameEng());
-        associate.setPhoto(govAssociate.getPhoto());
+        associate.setPhotoHash(photoStore.store(govAssociate.getPhoto()));
         associate.setMobilePhone(govAssociate.getMobilePhone());
         associate.setRegularPhone(govAssociate.getRegularPhone());
         return associate;
@@ -314,6 +537,7 @@ public class SyncService {
         business.setRenewedTo(GovApiClientService.parseDate(govBusiness.getRenewedTo()));
         business.setStatus(govBusiness.getStatus());
         business.setCapital(govBusiness.getCapital());
+        business.setBasicInfoOnly(false);
 
         // Map address if available
         if (govBusiness.getAddressInfo() != null) {
@@ -332,46 +556,42 @@ public class SyncService {
 
         // Map business licensing groups if available
         if (govBusiness.getBusinessLicensingGroupMain() != null && !govBusiness.getBusinessLicensingGroupMain().isEmpty()) {
-            try {
-                List<BusinessSubGroup> subGroups = govBusiness.getBusinessLicensingGroupMain().stream()
-                        .map(this::createSubGroupFromGovData)
-                        .collect(Collectors.toList());
-                business.setSubGroups(subGroups);
-            } catch (Exception e) {
-                logger.warn("Failed to map business groups for business {}: {}", 
-                    govBusiness.getLicenceNumber(), e.getMessage());
-                business.setSubGroups(new ArrayList<>());
-            }
+            business.setSubGroupCodes(subGroupCodesFromGovData(govBusiness.getBusinessLicensingGroupMain()));
         } else if (govBusiness.getSubGroups() != null && !govBusiness.getSubGroups().isEmpty()) {
             // If BusinessLicensingGroupMain is not available, try to use SubGroups
-            try {
-                List<BusinessSubGroup> subGroups = govBusiness.getSubGroups().stream()
-                        .map(this::createSubGroupFromSimpleDto)
-                        .collect(Collectors.toList());
-                business.setSubGroups(subGroups);
-            } catch (Exception e) {
-                logger.warn("Failed to map simple subgroups for business {}: {}", 
-                    govBusiness.getLicenceNumber(), e.getMessage());
-                business.setSubGroups(new ArrayList<>());
-            }
-        } else {
-            business.setSubGroups(new ArrayList<>());
+            business.setSubGroupCodes(subGroupCodesFromSimpleDtos(govBusiness.getSubGroups()));
         }
 
         return business;
     }
 
-    private BusinessSubGroup createSubGroupFromSimpleDto(GovSubGroupDto govSubGroup) {
-        BusinessSubGroup subGroup = new BusinessSubGroup();
-        subGroup.setCode(govSubGroup.getCode());
-        subGroup.setDescription(govSubGroup.getDescription());
-        return subGroup;
+    // Subgroups without a code have no taxonomy entry and are skipped
+    private Set<Integer> subGroupCodesFromSimpleDtos(List<GovSubGroupDto> govSubGroups) {
+        Set<Integer> codes = new LinkedHashSet<>();
+        for (GovSubGroupDto govSubGroup : govSubGroups) {
+            if (govSubGroup.getCode() != null) {
+                codes.add(subGroupTaxonomy.register(govSubGroup.getCode(), govSubGroup.getDescription()));
+            } else {
+                logger.warn("Skipping subgroup without a code: {}", govSubGroup.getDescription());
+            }
+        }
+        return codes;
     }
 
-    private BusinessSubGroup createSubGroupFromGovData(GovBusinessGroupDto govGroup) {
-        BusinessSubGroup subGroup = new BusinessSubGroup();
-        subGroup.setCode(govGroup.getSubGroup());
-        
+    private Set<Integer> subGroupCodesFromGovData(List<GovBusinessGroupDto> govGroups) {
+        Set<Integer> codes = new LinkedHashSet<>();
+        for (GovBusinessGroupDto govGroup : govGroups) {
+            if (govGroup.getSubGroup() != null) {
+                codes.add(subGroupTaxonomy.register(govGroup.getSubGroup(), describeSubGroup(govGroup)));
+            } else {
+                logger.warn("Skipping licensing group without a subgroup code: {}/{}",
+                        govGroup.getMajorGroup(), govGroup.getBGroup());
+            }
+        }
+        return codes;
+    }
+
+    private static String describeSubGroup(GovBusinessGroupDto govGroup) {
         // Create a detailed description from all group levels
         StringBuilder description = new StringBuilder();
         description.append("(").append(govGroup.getSubGroup()).append(") ");
@@ -380,22 +600,20 @@ public class SyncService {
         description.append("Group ").append(govGroup.getMajorGroup()).append("/");
         description.append(govGroup.getBGroup()).append("/");
         description.append(govGroup.getSubGroup());
-        
-        subGroup.setDescription(description.toString());
-        return subGroup;
+        return description.toString();
     }
 
     private CompanyAddress createAddressFromGovData(GovAddressDto govAddress) {
         CompanyAddress address = new CompanyAddress();
         
         // Set all fields with null checks
-        address.setRegion(govAddress.getRegion() != null ? govAddress.getRegion() : "N/A");
-        address.setZone(govAddress.getZone() != null ? govAddress.getZone() : "N/A");
-        address.setWoreda(govAddress.getWoreda() != null ? govAddress.getWoreda() : "N/A");
-        address.setKebele(govAddress.getKebele() != null ? govAddress.getKebele() : "N/A");
-        address.setHouseNo(govAddress.getHouseNo() != null ? govAddress.getHouseNo() : "N/A");
-        address.setMobilePhone(govAddress.getMobilePhone() != null ? govAddress.getMobilePhone() : "N/A");
-        address.setRegularPhone(govAddress.getRegularPhone() != null ? govAddress.getRegularPhone() : "N/A");
+        address.setRegion(addressValue(govAddress.getRegion()));
+        address.setZone(addressValue(govAddress.getZone()));
+        address.setWoreda(addressValue(govAddress.getWoreda()));
+        address.setKebele(addressValue(govAddress.getKebele()));
+        address.setHouseNo(addressValue(govAddress.getHouseNo()));
+        address.setMobilePhone(addressValue(govAddress.getMobilePhone()));
+        address.setRegularPhone(addressValue(govAddress.getRegularPhone()));
         
         return address;
     }
@@ -409,6 +627,7 @@ public class SyncService {
         existingBusiness.setRenewedTo(GovApiClientService.parseDate(govBusiness.getRenewedTo()));
         existingBusiness.setStatus(govBusiness.getStatus());
         existingBusiness.setCapital(govBusiness.getCapital());
+        existingBusiness.setBasicInfoOnly(false);
 
         // Update address
         if (govBusiness.getAddressInfo() != null) {
@@ -419,100 +638,219 @@ public class SyncService {
             }
         }
 
-        // Update business licensing groups
+        // Update business licensing groups; only codes that actually changed are deleted / inserted
         if (govBusiness.getBusinessLicensingGroupMain() != null && !govBusiness.getBusinessLicensingGroupMain().isEmpty()) {
-            List<BusinessSubGroup> newSubGroups = govBusiness.getBusinessLicensingGroupMain().stream()
-                    .map(this::createSubGroupFromGovData)
-                    .collect(Collectors.toList());
-            
-            // Clear existing subgroups and add new ones
-            existingBusiness.getSubGroups().clear();
-            existingBusiness.getSubGroups().addAll(newSubGroups);
+            applySubGroups(existingBusiness, subGroupCodesFromGovData(govBusiness.getBusinessLicensingGroupMain()));
         } else if (govBusiness.getSubGroups() != null && !govBusiness.getSubGroups().isEmpty()) {
             // If BusinessLicensingGroupMain is not available, try to use SubGroups
-            List<BusinessSubGroup> newSubGroups = govBusiness.getSubGroups().stream()
-                    .map(this::createSubGroupFromSimpleDto)
-                    .collect(Collectors.toList());
-            
-            // Clear existing subgroups and add new ones
-            existingBusiness.getSubGroups().clear();
-            existingBusiness.getSubGroups().addAll(newSubGroups);
+            applySubGroups(existingBusiness, subGroupCodesFromSimpleDtos(govBusiness.getSubGroups()));
         }
 
         // Log the update
         logger.info("Updated business details for license: {}", existingBusiness.getLicenceNumber());
     }
 
+    // Same values as createAddressFromGovData, so an unchanged address stays clean for dirty checking
     private void updateAddressFromGovData(CompanyAddress existingAddress, GovAddressDto govAddress) {
-        existingAddress.setRegion(govAddress.getRegion());
-        existingAddress.setZone(govAddress.getZone());
-        existingAddress.setWoreda(govAddress.getWoreda());
-        existingAddress.setKebele(govAddress.getKebele());
-        existingAddress.setHouseNo(govAddress.getHouseNo());
-        existingAddress.setMobilePhone(govAddress.getMobilePhone());
-        existingAddress.setRegularPhone(govAddress.getRegularPhone());
+        existingAddress.setRegion(addressValue(govAddress.getRegion()));
+        existingAddress.setZone(addressValue(govAddress.getZone()));
+        existingAddress.setWoreda(addressValue(govAddress.getWoreda()));
+        existingAddress.setKebele(addressValue(govAddress.getKebele()));
+        existingAddress.setHouseNo(addressValue(govAddress.getHouseNo()));
+        existingAddress.setMobilePhone(addressValue(govAddress.getMobilePhone()));
+        existingAddress.setRegularPhone(addressValue(govAddress.getRegularPhone()));
     }
 
-    @Transactional
-    public SyncResponseDto updateBusinessDetails(String licenseNo, String tin, String lang) {
-        try {
-            // First check if customer exists in company database
-            Optional<CompanyCustomer> existingCustomerOpt = companyCustomerRepository.findByTin(tin);
-            if (!existingCustomerOpt.isPresent()) {
-                throw new Syncexception("Customer not found in company database for TIN: " + tin);
-            }
+    private static String addressValue(String value) {
+        return value != null ? value : "N/A";
+    }
 
-            CompanyCustomer customer = existingCustomerOpt.get();
-            
-            // Find the business in the customer's businesses list
-            Optional<CompanyBusiness> existingBusinessOpt = customer.getBusinesses().stream()
-                    .filter(b -> licenseNo.equals(b.getLicenceNumber()))
-                    .findFirst();
+    /**
+     * Brings a business's subgroup codes in line with {@code desired}. The
+     * collection only records the codes that were removed or added, so when
+     * nothing changed upstream Hibernate issues no delete or insert for it.
+     */
+    private void applySubGroups(CompanyBusiness business, Set<Integer> desired) {
+        Set<Integer> codes = business.getSubGroupCodes();
+        boolean removed = codes.retainAll(desired);
+        boolean added = codes.addAll(desired);
+        if (removed || added) {
+            logger.debug("Subgroups of license {} changed to {}", business.getLicenceNumber(), desired);
+        }
+    }
 
-            if (!existingBusinessOpt.isPresent()) {
-                throw new Syncexception("Business not found in company database for license: " + licenseNo);
-            }
+    public SyncResponseDto updateBusinessDetails(String licenseNo, String tin, String lang) {
+        return updateBusinessDetails(licenseNo, tin, lang, new GovFetchContext(govApiClient));
+    }
+
+    /**
+     * Refreshes a single license. Concurrent refreshes of the same license share
+     * one in-flight update, like {@link #syncCustomerData(String, GovFetchContext)}.
+     */
+    public SyncResponseDto updateBusinessDetails(String licenseNo, String tin, String lang,
+                                                 GovFetchContext fetchContext) {
+        return businessUpdates.execute(List.of(licenseNo, tin, lang),
+                () -> doUpdateBusinessDetails(licenseNo, tin, lang, fetchContext));
+    }
 
-            CompanyBusiness existingBusiness = existingBusinessOpt.get();
+    // Snapshot, fetch and write phases as in runCustomerSync, for a single license
+    private SyncResponseDto doUpdateBusinessDetails(String licenseNo, String tin, String lang,
+                                                    GovFetchContext fetchContext) {
+        try {
+            LocalDate snapshotRenewedTo = timed(LICENSE, "snapshot", () -> readOnlyTransactionTemplate.execute(
+                    status -> findBusiness(tin, licenseNo).getRenewedTo()));
 
             // Get detailed business info from government API
-            GovBusinessDetailDto govBusinessDetail = govApiClientService.getBusinessByLicenseNo(licenseNo, tin, lang);
+            GovBusinessDetailDto govBusinessDetail = timed(LICENSE, "fetch",
+                    () -> fetchContext.getBusinessByLicenseNo(licenseNo, tin, lang));
             if (govBusinessDetail == null) {
                 throw new Syncexception("Failed to fetch business details from government database");
             }
 
-            // Update business with government data
-            updateBusinessFromGovData(existingBusiness, govBusinessDetail);
+            return timed(LICENSE, "write", () -> writeRetry.execute(() -> transactionTemplate.execute(status -> {
+                CompanyBusiness existingBusiness = findBusiness(tin, licenseNo);
+                CompanyCustomer customer = companyCustomerRepository.findByTin(tin)
+                        .orElseThrow(() -> new Syncexception("Customer not found in company database for TIN: " + tin));
+                if (!Objects.equals(snapshotRenewedTo, existingBusiness.getRenewedTo())) {
+                    recordConflict(LICENSE, tin);
+                }
 
-            // Save the updated customer
-            companyCustomerRepository.save(customer);
+                // Update business with government data
+                LocalDate previousRenewedTo = existingBusiness.getRenewedTo();
+                updateBusinessFromGovData(existingBusiness, govBusinessDetail);
 
-            // Check if the license is renewable
-            boolean isRenewable = existingBusiness.getRenewedTo() != null && 
-                                existingBusiness.getRenewedTo().isAfter(LocalDate.now());
+                // Both entities are managed; the changes are flushed when the transaction commits.
+                // The summary follows this license alone; the other businesses are not loaded.
+                updateSearchText(customer, existingBusiness);
+                companyCustomerRepository.updateRenewalSummary(customer, previousRenewedTo, existingBusiness.getRenewedTo());
+                evictAfterCommit(customer, List.of(existingBusiness));
 
-            String message = String.format("Successfully updated business details for license: %s", licenseNo);
-            return createResponse(customer, message, isRenewable);
+                // Check if the license is renewable
+                boolean isRenewable = existingBusiness.getRenewedTo() != null &&
+                                    existingBusiness.getRenewedTo().isAfter(LocalDate.now());
 
+                String message = String.format("Successfully updated business details for license: %s", licenseNo);
+                return createResponse(customer, message, isRenewable);
+            })));
         } catch (Exception e) {
-            throw new Syncexception("Failed to update business details: " + e.getMessage());
+            throw syncFailure("Failed to update business details: ", e);
+        }
+    }
+
+    // Loads only this license (with its address and subgroups), not the whole customer
+    private CompanyBusiness findBusiness(String tin, String licenseNo) {
+        List<CompanyBusiness> matches = companyCustomerRepository.findBusinessesByTinAndLicence(tin, licenseNo);
+        if (matches.isEmpty()) {
+            if (!companyCustomerRepository.existsByTin(tin)) {
+                throw new Syncexception("Customer not found in company database for TIN: " + tin);
+            }
+            throw new Syncexception("Business not found in company database for license: " + licenseNo);
         }
+        return matches.get(0);
     }
 
+    /**
+     * Wraps a failed sync in a Syncexception carrying {@code action}, except a
+     * version conflict that outlasted the retries and a government API answer
+     * (not found, unavailable), which callers tell apart by type.
+     */
+    private static RuntimeException syncFailure(String action, Exception e) {
+        if (e instanceof OptimisticLockingFailureException || e instanceof GovApiNotFoundException
+                || e instanceof GovApiUnavailableException) {
+            return (RuntimeException) e;
+        }
+        return new Syncexception(action + e.getMessage());
+    }
+
+    // The snapshot no longer matches the database: another writer synced in the meantime
+    private void recordConflict(String operation, String tin) {
+        logger.info("Sync conflict on TIN {}: data changed while fetching, applying fetched data on top", tin);
+        meterRegistry.counter("sync.conflicts", "operation", operation).increment();
+    }
+
+    private void recordDetailFetches(int fetched, int skipped) {
+        logger.debug("Fetching details of {} licenses, {} up to date", fetched, skipped);
+        meterRegistry.counter("sync.license.details", "result", "fetched").increment(fetched);
+        meterRegistry.counter("sync.license.details", "result", "skipped").increment(skipped);
+    }
+
+    private <T> T timed(String operation, String phase, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.get();
+        } finally {
+            sample.stop(meterRegistry.timer("sync.phase", "operation", operation, "phase", phase));
+        }
+    }
+
+    /**
+     * Drops the synced customer, its businesses collection and the given
+     * businesses (with their address and subgroup codes) from the
+     * second-level cache once the transaction commits. The cache is local
+     * to this instance; a sync is where it starts over from the committed
+     * rows instead of keeping entries that another writer may have
+     * outdated (another instance, a manual fix).
+     */
+    private void evictAfterCommit(CompanyCustomer customer, Collection<CompanyBusiness> businesses) {
+        Long customerId = customer.getId();
+        List<Object[]> businessKeys = new ArrayList<>();
+        for (CompanyBusiness business : businesses) {
+            if (business.getId() != null) {
+                Object addressId = business.getAddress() != null
+                        ? entityManagerFactory.getPersistenceUnitUtil().getIdentifier(business.getAddress())
+                        : null;
+                businessKeys.add(new Object[]{business.getId(), addressId});
+            }
+        }
+
+        Runnable evict = () -> {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            if (customerId != null) {
+                cache.evictEntityData(CompanyCustomer.class, customerId);
+                cache.evictCollectionData(CompanyCustomer.class.getName() + ".businesses", customerId);
+            }
+            for (Object[] key : businessKeys) {
+                cache.evictEntityData(CompanyBusiness.class, key[0]);
+                cache.evictCollectionData(CompanyBusiness.class.getName() + ".subGroupCodes", key[0]);
+                if (key[1] != null) {
+                    cache.evictEntityData(CompanyAddress.class, key[1]);
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    // Search document of each business, see BusinessSearchRepository; unchanged text is not rewritten
+    private void updateSearchText(CompanyCustomer customer) {
+        for (CompanyBusiness business : customer.getBusinesses()) {
+            updateSearchText(customer, business);
+        }
+    }
+
+    private void updateSearchText(CompanyCustomer customer, CompanyBusiness business) {
+        business.setSearchText(Stream.of(customer.getBusinessName(), customer.getBusinessNameAmh(),
+                        business.getTradesName(), business.getTradeNameAmh(), business.getLicenceNumber())
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" ")));
+    }
+
+    // The response header comes from the customer row (its renewal summary), not the businesses
     private SyncResponseDto createResponse(CompanyCustomer customer, String message, boolean renewable) {
         SyncResponseDto response = new SyncResponseDto();
         response.setTin(customer.getTin());
         response.setBusinessName(customer.getBusinessName());
         response.setStatus(message);
-
-        // Find the latest renewedTo date among all businesses
-        LocalDate latestRenewedTo = customer.getBusinesses().stream()
-                .map(CompanyBusiness::getRenewedTo)
-                .filter(date -> date != null)
-                .max(LocalDate::compareTo)
-                .orElse(null);
-
-        response.setRenewedTo(latestRenewedTo);
+        response.setRenewedTo(customer.getLatestRenewedTo());
         response.setRenewable(renewable);
         response.setMessage(message);
 
@@ -0,0 +1,67 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+/**
+ * AIMD concurrency limit. Calls beyond the current limit are rejected. Each
+ * successful, fast call grows the limit additively (about +1 per limit's worth
+ * of calls); a failed or slow call shrinks it multiplicatively, so load is shed
+ * quickly when the remote side degrades and probed back up as it recovers.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long slowCallNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.slowCallNanos = slowCallNanos;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        // Only grow while the limit is actually being used, otherwise it drifts up unchecked
+        boolean saturated = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (latencyNanos > slowCallNanos) {
+            decrease();
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized void onFailure() {
+        inFlight--;
+        decrease();
+    }
+
+    // For calls that ended without telling us anything about the remote side
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
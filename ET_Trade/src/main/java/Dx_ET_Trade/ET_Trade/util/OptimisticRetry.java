@@ -0,0 +1,55 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs work that lost an optimistic-locking race (a {@code @Version}
+ * mismatch on commit), up to {@code maxAttempts} times with a short jittered
+ * pause. The work must start its own transaction so every attempt re-reads
+ * the rows. The last conflict is rethrown once the attempts are used up.
+ */
+public class OptimisticRetry {
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(int maxAttempts, long backoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                pause(attempt);
+            }
+        }
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    private void pause(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        long millis = backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a version conflict", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- An unfinished job belongs to the instance holding its lease, which that
+-- instance's heartbeat keeps extending. Jobs whose lease lapsed (their
+-- instance stopped) are taken over by another one, never run twice.
+alter table sync_jobs
+    add column lease_owner varchar(36),
+    add column lease_expires_at timestamp(6) with time zone;
+
+-- Finished jobs are purged after sync.jobs.retention
+create index idx_sync_jobs_finished_at
+    on sync_jobs (finished_at);
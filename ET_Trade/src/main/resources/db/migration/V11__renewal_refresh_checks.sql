@@ -0,0 +1,11 @@
+-- When the renewal refresher last synced a customer. Customers whose licenses
+-- expire within the window are rechecked after sync.renewal-refresh.recheck-after;
+-- expired or undated ones, which stay due until renewed, in a separate pass
+-- after sync.renewal-refresh.expired-recheck-after, least recently checked first
+create table renewal_refresh_checks (
+    tin varchar(255) not null primary key,
+    checked_at timestamp(6) with time zone not null
+);
+
+-- Due-customer window scan: earliest_renewed_to between today and the cutoff
+-- uses idx_company_customers_earliest_renewed_to (V8)
@@ -0,0 +1,64 @@
+-- Schema as previously created by hibernate.ddl-auto=update. Existing databases
+-- are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table company_customers (
+    id bigint generated by default as identity primary key,
+    business_name varchar(255),
+    business_name_amh varchar(255),
+    legal_condition varchar(255),
+    paid_up_capital float(53),
+    reg_date date,
+    reg_no varchar(255),
+    tin varchar(255) not null,
+    constraint uk_company_customers_tin unique (tin)
+);
+
+create table company_addresses (
+    id bigint generated by default as identity primary key,
+    house_no varchar(255),
+    kebele varchar(255),
+    mobile_phone varchar(255),
+    region varchar(255),
+    regular_phone varchar(255),
+    woreda varchar(255),
+    zone varchar(255)
+);
+
+create table company_associates (
+    id bigint generated by default as identity primary key,
+    manager_name varchar(255),
+    manager_name_eng varchar(255),
+    mobile_phone varchar(255),
+    photo oid,
+    position varchar(255),
+    regular_phone varchar(255),
+    customer_id bigint,
+    constraint fk_company_associates_customer foreign key (customer_id) references company_customers
+);
+
+create table company_businesses (
+    id bigint generated by default as identity primary key,
+    capital float(53),
+    date_registered date,
+    licence_number varchar(255),
+    main_guid varchar(255),
+    renewal_date date,
+    renewed_from date,
+    renewed_to date,
+    status integer,
+    trade_name_amh varchar(255),
+    trades_name varchar(255),
+    address_id bigint,
+    customer_id bigint,
+    constraint uk_company_businesses_address unique (address_id),
+    constraint fk_company_businesses_address foreign key (address_id) references company_addresses,
+    constraint fk_company_businesses_customer foreign key (customer_id) references company_customers
+);
+
+create table business_sub_groups (
+    id bigint generated by default as identity primary key,
+    code integer,
+    description varchar(255),
+    business_id bigint,
+    constraint fk_business_sub_groups_business foreign key (business_id) references company_businesses
+);
@@ -0,0 +1,86 @@
+-- Pooled sequence ids (allocationSize = 50). Hibernate's pooled optimizer hands
+-- out [value - 49, value], so each sequence restarts at max(id) + 50.
+create sequence if not exists company_customers_seq start with 1 increment by 50;
+create sequence if not exists company_addresses_seq start with 1 increment by 50;
+create sequence if not exists company_associates_seq start with 1 increment by 50;
+create sequence if not exists company_businesses_seq start with 1 increment by 50;
+create sequence if not exists business_sub_groups_seq start with 1 increment by 50;
+
+select setval('company_customers_seq', coalesce((select max(id) from company_customers), 0) + 50, false);
+select setval('company_addresses_seq', coalesce((select max(id) from company_addresses), 0) + 50, false);
+select setval('company_associates_seq', coalesce((select max(id) from company_associates), 0) + 50, false);
+select setval('company_businesses_seq', coalesce((select max(id) from company_businesses), 0) + 50, false);
+select setval('business_sub_groups_seq', coalesce((select max(id) from business_sub_groups), 0) + 50, false);
+
+alter table company_customers alter column id drop identity if exists;
+alter table company_addresses alter column id drop identity if exists;
+alter table company_associates alter column id drop identity if exists;
+alter table company_businesses alter column id drop identity if exists;
+alter table business_sub_groups alter column id drop identity if exists;
+
+-- Children are now inserted with their parent key. Rows detached by the old
+-- mapping (parent key set to null) were unreachable and are removed.
+select lo_unlink(a.photo)
+from company_associates a
+where a.customer_id is null
+  and exists (select 1 from pg_largeobject_metadata m where m.oid = a.photo);
+delete from company_associates where customer_id is null;
+delete from business_sub_groups
+where business_id is null
+   or business_id in (select id from company_businesses where customer_id is null);
+delete from company_businesses where customer_id is null;
+delete from company_addresses a
+where not exists (select 1 from company_businesses b where b.address_id = a.id);
+
+alter table company_associates alter column customer_id set not null;
+alter table company_businesses alter column customer_id set not null;
+alter table business_sub_groups alter column business_id set not null;
+
+-- Associate photos move out of company_associates into a store keyed by the
+-- SHA-256 of the base64 text (same hash as PhotoStore)
+create table if not exists associate_photos (
+    hash varchar(64) not null primary key,
+    data text not null,
+    size integer,
+    created_at timestamp(6) with time zone
+);
+
+alter table company_associates add column if not exists photo_hash varchar(64);
+
+create temporary table moved_photos on commit drop as
+select a.id, a.photo as lo, btrim(convert_from(lo_get(a.photo), 'UTF8'), E' \t\r\n') as data
+from company_associates a
+where a.photo is not null
+  and exists (select 1 from pg_largeobject_metadata m where m.oid = a.photo);
+
+insert into associate_photos (hash, data, size, created_at)
+select distinct on (hash) hash, data, length(data), now()
+from (select encode(sha256(convert_to(data, 'UTF8')), 'hex') as hash, data
+      from moved_photos where data <> '') p
+on conflict (hash) do nothing;
+
+update company_associates a
+set photo_hash = encode(sha256(convert_to(m.data, 'UTF8')), 'hex')
+from moved_photos m
+where a.id = m.id and m.data <> '';
+
+select lo_unlink(lo) from moved_photos;
+
+alter table company_associates drop column photo;
+
+create table if not exists sync_jobs (
+    id varchar(36) not null primary key,
+    tin varchar(255) not null,
+    status varchar(16) not null,
+    processed_licenses integer,
+    total_licenses integer,
+    business_name varchar(255),
+    result_status varchar(255),
+    renewed_to date,
+    renewable boolean,
+    message varchar(255),
+    error varchar(2000),
+    created_at timestamp(6) with time zone,
+    started_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone
+);
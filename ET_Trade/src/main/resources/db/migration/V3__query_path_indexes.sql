@@ -0,0 +1,23 @@
+-- Loading a customer's businesses (join on customer_id) and looking up one
+-- license of a customer
+create index if not exists idx_company_businesses_customer_licence
+    on company_businesses (customer_id, licence_number);
+
+-- Lookup by license number alone (government detail / license endpoints)
+create index if not exists idx_company_businesses_licence
+    on company_businesses (licence_number);
+
+-- Expiry range scans (renewed_to is null or <= cutoff); customer_id is included
+-- so the renewal refresher can read the owning customer from the index
+create index if not exists idx_company_businesses_renewed_to
+    on company_businesses (renewed_to, customer_id);
+
+create index if not exists idx_business_sub_groups_business
+    on business_sub_groups (business_id);
+
+create index if not exists idx_company_associates_customer
+    on company_associates (customer_id);
+
+-- Resuming queued / running jobs at startup
+create index if not exists idx_sync_jobs_status_created
+    on sync_jobs (status, created_at);
@@ -0,0 +1,26 @@
+-- Search document for /api/business/search: the owning customer's names plus
+-- the business's trade names and license number, written by SyncService.
+-- Keeping it on the business row lets one index answer a search and lets
+-- "order by id limit n" stop early for common terms.
+alter table company_businesses add column search_text text;
+
+update company_businesses b
+set search_text = concat_ws(' ', c.business_name, c.business_name_amh, b.trades_name, b.trade_name_amh, b.licence_number)
+from company_customers c
+where c.id = b.customer_id;
+
+-- Full-text with the 'simple' configuration (no stemming) for word-prefix
+-- matches in any order
+alter table company_businesses add column search_vector tsvector
+    generated always as (to_tsvector('simple', coalesce(search_text, ''))) stored;
+
+create index if not exists idx_company_businesses_search_vector
+    on company_businesses using gin (search_vector);
+
+-- Trigram index for substring (ILIKE) matches. Extracting trigrams from
+-- Ethiopic script needs a UTF-8 LC_CTYPE; under the C locale Amharic names
+-- still match, only without index support.
+create extension if not exists pg_trgm;
+
+create index if not exists idx_company_businesses_search_text
+    on company_businesses using gin (search_text gin_trgm_ops);
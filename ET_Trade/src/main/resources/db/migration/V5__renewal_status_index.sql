@@ -0,0 +1,12 @@
+-- /api/business/renewal-status walks businesses in (renewed_to, id) order for
+-- keyset paging. customer_id is included so the renewal refresher's
+-- renewed_to range scan keeps reading owners from the index; this replaces the
+-- (renewed_to, customer_id) index from V3.
+create index if not exists idx_company_businesses_renewed_to_id
+    on company_businesses (renewed_to, id) include (customer_id);
+
+drop index if exists idx_company_businesses_renewed_to;
+
+-- Region filter
+create index if not exists idx_company_addresses_region
+    on company_addresses (region);
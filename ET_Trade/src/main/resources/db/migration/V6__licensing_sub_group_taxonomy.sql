@@ -0,0 +1,54 @@
+-- Subgroup codes are shared reference data: one taxonomy row per code, and
+-- businesses only reference codes. Descriptions are edited in place; set
+-- updated_at = now() with the change so SubGroupTaxonomy re-reads the row.
+create table licensing_sub_groups (
+    code integer not null primary key,
+    description text,
+    updated_at timestamp(6) with time zone not null
+);
+
+-- SubGroupTaxonomy's incremental refresh
+create index idx_licensing_sub_groups_updated_at
+    on licensing_sub_groups (updated_at);
+
+-- Each code keeps the description most businesses had for it
+insert into licensing_sub_groups (code, description, updated_at)
+select distinct on (code) code, description, now()
+from (select code, description, count(*) as uses
+      from business_sub_groups
+      where code is not null
+      group by code, description) d
+order by code, uses desc, description nulls last;
+
+-- The primary key also serves the renewal-status subgroup filter
+-- (exists ... where business_id = ? and code = ?)
+create table business_sub_group_codes (
+    business_id bigint not null,
+    code integer not null,
+    primary key (business_id, code),
+    constraint fk_business_sub_group_codes_business foreign key (business_id) references company_businesses,
+    constraint fk_business_sub_group_codes_code foreign key (code) references licensing_sub_groups
+);
+
+insert into business_sub_group_codes (business_id, code)
+select distinct business_id, code
+from business_sub_groups
+where code is not null;
+
+-- Subgroups without a code have no taxonomy entry to reference. Their
+-- descriptions are kept here rather than lost with business_sub_groups; the
+-- application neither reads nor writes this table (syncs log codeless
+-- subgroups and skip them). No foreign key: a business removed by a later
+-- sync leaves its archived rows behind.
+create table business_sub_groups_without_code (
+    business_id bigint not null,
+    description varchar(255)
+);
+
+insert into business_sub_groups_without_code (business_id, description)
+select business_id, description
+from business_sub_groups
+where code is null and business_id is not null;
+
+drop table business_sub_groups;
+drop sequence if exists business_sub_groups_seq;
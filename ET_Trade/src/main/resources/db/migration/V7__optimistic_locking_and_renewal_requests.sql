@@ -0,0 +1,18 @@
+-- @Version columns: concurrent syncs and renewals of the same customer or
+-- license fail on commit instead of silently overwriting each other
+alter table company_customers add column version bigint not null default 0;
+alter table company_businesses add column version bigint not null default 0;
+
+-- POST /api/business/renew/{licenseNo} with an Idempotency-Key header: a retry
+-- with the same key returns the recorded outcome instead of renewing again.
+-- Rows older than renewal.idempotency-ttl are purged.
+create table renewal_requests (
+    idempotency_key varchar(100) not null primary key,
+    tin varchar(255) not null,
+    licence_number varchar(255) not null,
+    renewed_to date not null,
+    created_at timestamp(6) with time zone not null
+);
+
+create index idx_renewal_requests_created_at
+    on renewal_requests (created_at);
@@ -0,0 +1,25 @@
+-- Earliest / latest renewed_to of a customer's businesses and whether any has
+-- none, kept on the customer row by the application whenever businesses are
+-- written: the sync's Rule 1 check and response read this row only
+alter table company_customers
+    add column earliest_renewed_to date,
+    add column latest_renewed_to date,
+    add column has_unknown_expiry boolean not null default false;
+
+update company_customers c
+set earliest_renewed_to = s.earliest,
+    latest_renewed_to = s.latest,
+    has_unknown_expiry = s.unknown
+from (select customer_id,
+             min(renewed_to) as earliest,
+             max(renewed_to) as latest,
+             bool_or(renewed_to is null) as unknown
+      from company_businesses
+      group by customer_id) s
+where s.customer_id = c.id;
+
+-- The renewal refresher's due-customer scan
+create index idx_company_customers_earliest_renewed_to
+    on company_customers (earliest_renewed_to);
+create index idx_company_customers_unknown_expiry
+    on company_customers (tin) where has_unknown_expiry;
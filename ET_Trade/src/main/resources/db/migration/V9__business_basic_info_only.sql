@@ -0,0 +1,13 @@
+-- Licenses stored from the registration listing alone (their detail fetch
+-- failed): the next sync fetches their detail even when the listed dates
+-- match the stored ones
+alter table company_businesses
+    add column basic_info_only boolean not null default false;
+
+-- Rows stored from basic info before this column have an empty address; the
+-- detail path writes N/A into the fields it does not get
+update company_businesses b
+set basic_info_only = true
+from company_addresses a
+where a.id = b.address_id
+  and a.region is null and a.zone is null and a.woreda is null and a.kebele is null;
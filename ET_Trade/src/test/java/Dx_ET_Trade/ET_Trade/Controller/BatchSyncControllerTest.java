@@ -0,0 +1,150 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.GlobalExceptionHandler;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import Dx_ET_Trade.ET_Trade.repository.BusinessSearchRepository;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalStatusRepository;
+import Dx_ET_Trade.ET_Trade.service.BatchSyncService;
+import Dx_ET_Trade.ET_Trade.service.GovApiClient;
+import Dx_ET_Trade.ET_Trade.service.LicenseRenewalService;
+import Dx_ET_Trade.ET_Trade.service.SyncService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BatchSyncControllerTest {
+
+	private static final String VALID = "0011111111";
+	private static final String INVALID = "0022222222";
+	private static final String BROKEN = "0033333333";
+
+	private final SyncService syncService = mock(SyncService.class);
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@BeforeEach
+	void setUp() {
+		when(syncService.syncCustomerData(VALID)).thenReturn(
+				new SyncResponseDto(VALID, "Abebe Trading", "EXISTS", LocalDate.of(2030, 7, 7), true, "ok"));
+		when(syncService.syncCustomerData(INVALID)).thenThrow(new Syncexception("Customer not found in government database"));
+		// An Error escapes the sync's own exception handling
+		when(syncService.syncCustomerData(BROKEN)).thenThrow(new StackOverflowError());
+	}
+
+	private MockMvc mockMvc(Executor executor, Duration resultTimeout) {
+		BatchSyncService batchSyncService = new BatchSyncService(syncService, executor);
+		ReflectionTestUtils.setField(batchSyncService, "parallelism", 2);
+		ReflectionTestUtils.setField(batchSyncService, "resultTimeout", resultTimeout);
+		BusinessController controller = new BusinessController(syncService, mock(GovApiClient.class),
+				mock(CompanyCustomerRepository.class), batchSyncService, objectMapper,
+				mock(BusinessSearchRepository.class), mock(RenewalStatusRepository.class),
+				mock(LicenseRenewalService.class));
+		return MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	// Status of each TIN's line: 200 for a sync result, the error status otherwise
+	private Map<String, Integer> statusByTin(MockMvc mockMvc, MediaType contentType, String body) throws Exception {
+		MvcResult started = mockMvc.perform(post("/api/business/sync/batch")
+						.contentType(contentType)
+						.content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String content = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		Map<String, Integer> statuses = new HashMap<>();
+		for (String line : content.split("\n")) {
+			JsonNode node = objectMapper.readTree(line);
+			int status = node.has("Error") ? node.get("Error").get("status").asInt() : 200;
+			assertEquals(null, statuses.put(node.get("Tin").asText(), status), "one line per TIN");
+		}
+		return statuses;
+	}
+
+	@Test
+	void everyTinGetsOneLineIncludingFailingOnes() throws Exception {
+		Map<String, Integer> statuses = statusByTin(mockMvc(pool, Duration.ofSeconds(10)),
+				MediaType.APPLICATION_JSON, "[\"" + VALID + "\", \"" + INVALID + "\", \"" + BROKEN + "\"]");
+
+		assertEquals(Map.of(VALID, 200, INVALID, 400, BROKEN, 500), statuses);
+	}
+
+	@Test
+	void newlineDelimitedTinsAreSyncedLikeAJsonArray() throws Exception {
+		Map<String, Integer> statuses = statusByTin(mockMvc(pool, Duration.ofSeconds(10)),
+				MediaType.TEXT_PLAIN, VALID + "\n\n\"" + INVALID + "\"\n");
+
+		assertEquals(Map.of(VALID, 200, INVALID, 400), statuses);
+	}
+
+	@Test
+	void tinRejectedByTheSaturatedPoolIsReportedUnavailable() throws Exception {
+		AtomicInteger submissions = new AtomicInteger();
+		Executor rejectingSecond = task -> {
+			if (submissions.incrementAndGet() == 2) {
+				throw new RejectedExecutionException("queue full");
+			}
+			pool.execute(task);
+		};
+
+		Map<String, Integer> statuses = statusByTin(mockMvc(rejectingSecond, Duration.ofSeconds(10)),
+				MediaType.APPLICATION_JSON, "[\"" + VALID + "\", \"" + INVALID + "\"]");
+
+		assertEquals(Map.of(VALID, 200, INVALID, 503), statuses);
+	}
+
+	@Test
+	void syncThatNeverFinishesTimesOutInsteadOfBlockingTheBatch() throws Exception {
+		String hanging = "0044444444";
+		CountDownLatch release = new CountDownLatch(1);
+		when(syncService.syncCustomerData(hanging)).thenAnswer(invocation -> {
+			release.await();
+			return null;
+		});
+
+		try {
+			Map<String, Integer> statuses = statusByTin(mockMvc(pool, Duration.ofMillis(300)),
+					MediaType.APPLICATION_JSON, "[\"" + hanging + "\", \"" + VALID + "\"]");
+
+			assertEquals(Map.of(hanging, 504, VALID, 200), statuses);
+		} finally {
+			release.countDown();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+import Dx_ET_Trade.ET_Trade.exception.GlobalExceptionHandler;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.repository.BusinessSearchRepository;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalRequestRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalStatusRepository;
+import Dx_ET_Trade.ET_Trade.service.BatchSyncService;
+import Dx_ET_Trade.ET_Trade.service.GovApiClient;
+import Dx_ET_Trade.ET_Trade.service.GovFetchContext;
+import Dx_ET_Trade.ET_Trade.service.LicenseRenewalService;
+import Dx_ET_Trade.ET_Trade.service.SyncService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BusinessControllerTest {
+
+	private static final String TIN = "0012345678";
+	private static final String LICENSE = "LIC-1";
+
+	private final CompanyCustomerRepository repository = mock(CompanyCustomerRepository.class);
+	private final SyncService syncService = mock(SyncService.class);
+	private final GovApiClient govApiClient = mock(GovApiClient.class);
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		LicenseRenewalService renewalService = new LicenseRenewalService(repository,
+				mock(RenewalRequestRepository.class), mock(PlatformTransactionManager.class), 3);
+		BusinessController controller = new BusinessController(syncService, govApiClient, repository,
+				mock(BatchSyncService.class), new ObjectMapper(), mock(BusinessSearchRepository.class),
+				mock(RenewalStatusRepository.class), renewalService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void renewalStillConflictingAfterTheRetriesIsAConflict() throws Exception {
+		when(repository.findBusinessesByTinAndLicence(TIN, LICENSE))
+				.thenThrow(new ObjectOptimisticLockingFailureException(CompanyBusiness.class, 1L));
+
+		mockMvc.perform(post("/api/business/renew/{licenseNo}", LICENSE)
+						.param("tin", TIN)
+						.param("renewedTo", "2031-01-01"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.status").value(409));
+
+		// Every attempt re-read the license before giving up
+		verify(repository, times(3)).findBusinessesByTinAndLicence(TIN, LICENSE);
+	}
+
+	@Test
+	void syncStillConflictingAfterTheRetriesIsAConflict() throws Exception {
+		when(govApiClient.getRegistrationInfoByTin(TIN)).thenReturn(new GovRegistrationInfoDto());
+		when(syncService.syncCustomerData(eq(TIN), any(GovFetchContext.class)))
+				.thenThrow(new ObjectOptimisticLockingFailureException(CompanyBusiness.class, 1L));
+
+		mockMvc.perform(get("/api/business/sync/{tin}", TIN))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.status").value(409));
+	}
+}
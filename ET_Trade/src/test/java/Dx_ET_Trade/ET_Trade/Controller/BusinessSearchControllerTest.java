@@ -0,0 +1,98 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+
+import Dx_ET_Trade.ET_Trade.dto.BusinessSearchPageDto;
+import Dx_ET_Trade.ET_Trade.dto.BusinessSearchResultDto;
+import Dx_ET_Trade.ET_Trade.exception.GlobalExceptionHandler;
+import Dx_ET_Trade.ET_Trade.repository.BusinessSearchRepository;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalStatusRepository;
+import Dx_ET_Trade.ET_Trade.service.BatchSyncService;
+import Dx_ET_Trade.ET_Trade.service.GovApiClient;
+import Dx_ET_Trade.ET_Trade.service.LicenseRenewalService;
+import Dx_ET_Trade.ET_Trade.service.SyncService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BusinessSearchControllerTest {
+
+	private final BusinessSearchRepository searchRepository = mock(BusinessSearchRepository.class);
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		BusinessController controller = new BusinessController(mock(SyncService.class), mock(GovApiClient.class),
+				mock(CompanyCustomerRepository.class), mock(BatchSyncService.class),
+				new ObjectMapper().findAndRegisterModules(), searchRepository,
+				mock(RenewalStatusRepository.class), mock(LicenseRenewalService.class));
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	private static BusinessSearchResultDto result(String licenceNumber) {
+		return new BusinessSearchResultDto("0012345678", "Addis Trading PLC", null, licenceNumber,
+				"Alpha Mart", null, LocalDate.of(2030, 7, 7));
+	}
+
+	@Test
+	void fullPageCarriesTheCursorOfTheNextPage() throws Exception {
+		when(searchRepository.search("addis tra", null, null, null, 2))
+				.thenReturn(new BusinessSearchPageDto(List.of(result("AA/1/1"), result("AA/1/2")), 42L));
+
+		mockMvc.perform(get("/api/business/search").param("query", "addis tra").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.Results.length()").value(2))
+				.andExpect(jsonPath("$.Results[0].LicenceNumber").value("AA/1/1"))
+				.andExpect(jsonPath("$.Results[0].TradeName").value("Alpha Mart"))
+				.andExpect(jsonPath("$.NextCursor").value(42));
+	}
+
+	@Test
+	void lastPageHasNoCursor() throws Exception {
+		when(searchRepository.search("addis", null, null, 42L, 20))
+				.thenReturn(new BusinessSearchPageDto(List.of(result("AA/1/3")), null));
+
+		mockMvc.perform(get("/api/business/search").param("query", "addis").param("after", "42"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.Results.length()").value(1))
+				.andExpect(jsonPath("$.NextCursor").doesNotExist());
+	}
+
+	@Test
+	void filtersArePassedOnAndTheLimitIsCapped() throws Exception {
+		when(searchRepository.search(null, "0012345678", "AA/1/1", null, 100))
+				.thenReturn(new BusinessSearchPageDto(List.of(result("AA/1/1")), null));
+
+		mockMvc.perform(get("/api/business/search")
+						.param("tin", "0012345678")
+						.param("licenseNo", "AA/1/1")
+						.param("limit", "5000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.Results[0].Tin").value("0012345678"));
+	}
+
+	@Test
+	void searchWithoutCriteriaIsRejected() throws Exception {
+		mockMvc.perform(get("/api/business/search").param("query", "  "))
+				.andExpect(status().isBadRequest());
+
+		verify(searchRepository, never()).search(any(), any(), any(), any(), anyInt());
+	}
+}
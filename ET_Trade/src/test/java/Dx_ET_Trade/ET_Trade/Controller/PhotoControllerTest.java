@@ -0,0 +1,71 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+
+import Dx_ET_Trade.ET_Trade.model.AssociatePhoto;
+import Dx_ET_Trade.ET_Trade.service.PhotoStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PhotoControllerTest {
+
+	private static final String HASH = "ab12";
+
+	private final PhotoStore photoStore = mock(PhotoStore.class);
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(new PhotoController(photoStore)).build();
+	}
+
+	@Test
+	void photoIsServedAsAnImmutableImage() throws Exception {
+		byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n'};
+		when(photoStore.find(HASH)).thenReturn(Optional.of(photo(Base64.getEncoder().encodeToString(png))));
+
+		mockMvc.perform(get("/api/business/photos/{hash}", HASH))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.IMAGE_PNG))
+				.andExpect(content().bytes(png))
+				.andExpect(header().string("ETag", "\"" + HASH + "\""))
+				.andExpect(header().string("Cache-Control", containsString("immutable")));
+	}
+
+	@Test
+	void unknownHashIsNotFound() throws Exception {
+		when(photoStore.find(HASH)).thenReturn(Optional.empty());
+
+		mockMvc.perform(get("/api/business/photos/{hash}", HASH))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void photoThatIsNotBase64IsUnprocessable() throws Exception {
+		when(photoStore.find(HASH)).thenReturn(Optional.of(photo("not*base64")));
+
+		mockMvc.perform(get("/api/business/photos/{hash}", HASH))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	private static AssociatePhoto photo(String data) {
+		AssociatePhoto photo = new AssociatePhoto();
+		photo.setHash(HASH);
+		photo.setData(data);
+		photo.setSize(data.length());
+		return photo;
+	}
+}
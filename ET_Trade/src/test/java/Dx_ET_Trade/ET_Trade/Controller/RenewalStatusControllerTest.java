@@ -0,0 +1,124 @@
+package Dx_ET_Trade.ET_Trade.Controller;
+
+import Dx_ET_Trade.ET_Trade.dto.RenewalStatusDto;
+import Dx_ET_Trade.ET_Trade.exception.GlobalExceptionHandler;
+import Dx_ET_Trade.ET_Trade.repository.BusinessSearchRepository;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.RenewalStatusRepository;
+import Dx_ET_Trade.ET_Trade.service.BatchSyncService;
+import Dx_ET_Trade.ET_Trade.service.GovApiClient;
+import Dx_ET_Trade.ET_Trade.service.LicenseRenewalService;
+import Dx_ET_Trade.ET_Trade.service.SyncService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RenewalStatusControllerTest {
+
+	private final RenewalStatusRepository renewalStatusRepository = mock(RenewalStatusRepository.class);
+	// Configured like the application's mapper, which writes dates as yyyy-MM-dd
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		BusinessController controller = new BusinessController(mock(SyncService.class), mock(GovApiClient.class),
+				mock(CompanyCustomerRepository.class), mock(BatchSyncService.class), objectMapper,
+				mock(BusinessSearchRepository.class), renewalStatusRepository, mock(LicenseRenewalService.class));
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	private static RenewalStatusDto row(String licenceNumber, LocalDate renewedTo, long id) {
+		return new RenewalStatusDto("0012345678", "Addis Trading PLC", licenceNumber, "Alpha Mart", "Oromia",
+				renewedTo, renewedTo.isBefore(LocalDate.now()), new RenewalStatusRepository.Cursor(renewedTo, id).toString());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void rowsAreWrittenAsOneJsonObjectPerLine() throws Exception {
+		LocalDate expired = LocalDate.now().minusDays(3);
+		LocalDate due = LocalDate.now().plusDays(3);
+		doAnswer(invocation -> {
+			Consumer<RenewalStatusDto> consumer = invocation.getArgument(5);
+			consumer.accept(row("AA/1/1", expired, 7));
+			consumer.accept(row("AA/1/2", due, 3));
+			return null;
+		}).when(renewalStatusRepository).streamDueBy(eq(LocalDate.now().plusDays(7)), eq("Oromia"), eq(12),
+				eq(new RenewalStatusRepository.Cursor(LocalDate.of(2025, 3, 1), 42)), eq(2), any());
+
+		MvcResult started = mockMvc.perform(get("/api/business/renewal-status")
+						.param("days", "7")
+						.param("region", "Oromia")
+						.param("subGroupCode", "12")
+						.param("after", "2025-03-01_42")
+						.param("limit", "2"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(2, lines.length);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals("AA/1/1", first.get("LicenceNumber").asText());
+		assertEquals(expired.toString(), first.get("RenewedTo").asText());
+		assertEquals(true, first.get("Expired").asBoolean());
+		assertEquals(expired + "_7", first.get("Cursor").asText());
+		JsonNode second = objectMapper.readTree(lines[1]);
+		assertEquals("AA/1/2", second.get("LicenceNumber").asText());
+		assertEquals(false, second.get("Expired").asBoolean());
+	}
+
+	@Test
+	void defaultsToThirtyDaysWithoutCursorOrLimit() throws Exception {
+		MvcResult started = mockMvc.perform(get("/api/business/renewal-status"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk());
+
+		verify(renewalStatusRepository).streamDueBy(eq(LocalDate.now().plusDays(30)), isNull(), isNull(),
+				isNull(), isNull(), any());
+	}
+
+	@Test
+	void invalidParametersAreRejectedBeforeStreaming() throws Exception {
+		mockMvc.perform(get("/api/business/renewal-status").param("after", "not-a-cursor"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/business/renewal-status").param("days", "-1"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/business/renewal-status").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+
+		verify(renewalStatusRepository, never()).streamDueBy(any(), any(), any(), any(), any(), any());
+	}
+}
@@ -0,0 +1,73 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheConfigTest {
+
+	private static final String TIN = "0055555555";
+
+	@Autowired
+	private CompanyCustomerRepository repository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void repeatedLookupIsServedFromCache() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			CompanyCustomer customer = new CompanyCustomer();
+			customer.setTin(TIN);
+			for (int i = 0; i < 3; i++) {
+				CompanyBusiness business = new CompanyBusiness();
+				business.setLicenceNumber("LIC-" + i);
+				customer.getBusinesses().add(business);
+			}
+			repository.save(customer);
+		});
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		transaction.executeWithoutResult(status -> readBusinesses());
+		long coldStatements = statistics.getPrepareStatementCount();
+		transaction.executeWithoutResult(status -> readBusinesses());
+
+		assertTrue(coldStatements > 0);
+		assertEquals(coldStatements, statistics.getPrepareStatementCount(), "statements for a cached read");
+		assertEquals(1, statistics.getQueryCacheHitCount());
+		assertTrue(statistics.getSecondLevelCacheHitCount() >= 4, "customer and business hits");
+	}
+
+	private void readBusinesses() {
+		CompanyCustomer customer = repository.findByTin(TIN).orElseThrow();
+		customer.getBusinesses().forEach(CompanyBusiness::getRenewedTo);
+		assertEquals(3, customer.getBusinesses().size());
+	}
+}
@@ -0,0 +1,49 @@
+package Dx_ET_Trade.ET_Trade.config;
+
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"jpa.second-level-cache.enabled=false"
+})
+@Import(SecondLevelCacheConfig.class)
+class SecondLevelCacheDisabledTest {
+
+	@Autowired
+	private CompanyCustomerRepository repository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void noRegionsExistWhenTheCacheIsOff() {
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin("0066666666");
+		CompanyBusiness business = new CompanyBusiness();
+		business.setLicenceNumber("LIC-0");
+		customer.getBusinesses().add(business);
+		repository.save(customer);
+		repository.findByTin("0066666666").orElseThrow();
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		assertFalse(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+		assertFalse(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled());
+		assertTrue(sessionFactory.getCache().getCacheRegionNames().isEmpty(),
+				() -> "regions: " + sessionFactory.getCache().getCacheRegionNames());
+		assertEquals(0, sessionFactory.getStatistics().getSecondLevelCachePutCount());
+	}
+}
@@ -0,0 +1,28 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BusinessSearchRepositoryTest {
+
+	@Test
+	void onlyTheLastWordIsAPrefix() {
+		assertEquals("abebe & trad:*", BusinessSearchRepository.toPrefixTsQuery("Abebe  Trad"));
+		assertEquals("addis:*", BusinessSearchRepository.toPrefixTsQuery("addis"));
+	}
+
+	@Test
+	void shortLastWordIsMatchedWhole() {
+		assertEquals("tana & trading & 6", BusinessSearchRepository.toPrefixTsQuery("tana trading 6"));
+		assertEquals("tr", BusinessSearchRepository.toPrefixTsQuery("tr"));
+	}
+
+	@Test
+	void textThatIsNotPlainWordsIsMatchedAsASubstring() {
+		assertNull(BusinessSearchRepository.toPrefixTsQuery("AA/2/16"));
+		assertNull(BusinessSearchRepository.toPrefixTsQuery("አበበ"));
+		assertEquals("AA/2\\_1\\%6", BusinessSearchRepository.escapeLike("AA/2_1%6"));
+	}
+}
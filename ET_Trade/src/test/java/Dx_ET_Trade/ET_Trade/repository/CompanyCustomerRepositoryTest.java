@@ -0,0 +1,204 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.model.CompanyAddress;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.model.RenewalRefreshCheck;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CompanyCustomerRepositoryTest {
+
+	private static final String TIN = "0012345678";
+	private static final int BUSINESSES = 3;
+
+	@Autowired
+	private CompanyCustomerRepository repository;
+
+	@Autowired
+	private RenewalRefreshCheckRepository checkRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin(TIN);
+		for (int i = 0; i < BUSINESSES; i++) {
+			CompanyBusiness business = new CompanyBusiness();
+			business.setLicenceNumber("LIC-" + i);
+			CompanyAddress address = new CompanyAddress();
+			address.setRegion("Region " + i);
+			business.setAddress(address);
+			business.getSubGroupCodes().add(1);
+			business.getSubGroupCodes().add(2);
+			customer.getBusinesses().add(business);
+		}
+		customer.summarizeRenewals();
+		repository.save(customer);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void aggregateLoadsInTwoStatements() {
+		CompanyCustomer customer = repository.findAggregateByTin(TIN).orElseThrow();
+
+		int subGroups = 0;
+		for (CompanyBusiness business : customer.getBusinesses()) {
+			business.getAddress().getRegion();
+			subGroups += business.getSubGroupCodes().size();
+		}
+
+		assertEquals(BUSINESSES, customer.getBusinesses().size());
+		assertEquals(BUSINESSES * 2, subGroups);
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void businessesOnlyLoadInOneStatement() {
+		CompanyCustomer customer = repository.findWithBusinessesByTin(TIN).orElseThrow();
+
+		customer.getBusinesses().forEach(CompanyBusiness::getRenewedTo);
+
+		assertEquals(BUSINESSES, customer.getBusinesses().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void singleBusinessLoadsInOneStatement() {
+		List<CompanyBusiness> matches = repository.findBusinessesByTinAndLicence(TIN, "LIC-1");
+
+		assertEquals(1, matches.size());
+		assertEquals("Region 1", matches.get(0).getAddress().getRegion());
+		assertEquals(2, matches.get(0).getSubGroupCodes().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void businessExistenceChecksInOneStatement() {
+		assertTrue(repository.existsBusinessByTinAndLicence(TIN, "LIC-2"));
+		assertFalse(repository.existsBusinessByTinAndLicence(TIN, "LIC-9"));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void renewalSummaryFollowsOneBusinessWithoutLoadingTheOthers() {
+		for (int i = 0; i < BUSINESSES; i++) {
+			repository.findBusinessesByTinAndLicence(TIN, "LIC-" + i).get(0).setRenewedTo(LocalDate.of(2030 + i, 1, 1));
+		}
+		CompanyCustomer stored = repository.findByTin(TIN).orElseThrow();
+		stored.setEarliestRenewedTo(LocalDate.of(2030, 1, 1));
+		stored.setLatestRenewedTo(LocalDate.of(2032, 1, 1));
+		stored.setUnknownExpiry(false);
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+
+		CompanyCustomer customer = repository.findByTin(TIN).orElseThrow();
+
+		// A later latest date is taken from the moved row alone
+		renew(customer, "LIC-2", LocalDate.of(2033, 1, 1));
+		assertEquals(LocalDate.of(2030, 1, 1), customer.getEarliestRenewedTo());
+		assertEquals(LocalDate.of(2033, 1, 1), customer.getLatestRenewedTo());
+
+		// Renewing the earliest license needs the others' dates: asked of the database
+		renew(customer, "LIC-0", LocalDate.of(2034, 1, 1));
+		assertEquals(LocalDate.of(2031, 1, 1), customer.getEarliestRenewedTo());
+		assertEquals(LocalDate.of(2034, 1, 1), customer.getLatestRenewedTo());
+
+		// Losing an expiry date marks the customer without asking
+		renew(customer, "LIC-1", null);
+		assertTrue(customer.isUnknownExpiry());
+
+		assertEquals(0, statistics.getCollectionStatistics(CompanyCustomer.class.getName() + ".businesses").getLoadCount());
+	}
+
+	private void renew(CompanyCustomer customer, String licenseNo, LocalDate renewedTo) {
+		CompanyBusiness business = repository.findBusinessesByTinAndLicence(TIN, licenseNo).get(0);
+		LocalDate previous = business.getRenewedTo();
+		business.setRenewedTo(renewedTo);
+		repository.updateRenewalSummary(customer, previous, renewedTo);
+	}
+
+	@Test
+	void dueWindowIsSoonestFirstAndSkipsExpiredAndRecentlyChecked() {
+		LocalDate today = LocalDate.now();
+		Instant now = Instant.now();
+		customerExpiring("0000000001", today.minusDays(1));
+		customerExpiring("0000000002", today.plusDays(10));
+		customerExpiring("0000000003", today);
+		customerExpiring("0000000004", today.plusDays(3));
+		customerExpiring("0000000005", today.plusDays(40));
+		checkRepository.save(new RenewalRefreshCheck("0000000004", now.minus(Duration.ofHours(1))));
+		checkRepository.save(new RenewalRefreshCheck("0000000002", now.minus(Duration.ofDays(2))));
+		entityManager.flush();
+		statistics.clear();
+
+		List<String> tins = repository.findTinsWithRenewalDueBetween(today, today.plusDays(14),
+				now.minus(Duration.ofDays(1)), PageRequest.of(0, 10));
+
+		assertEquals(List.of("0000000003", "0000000002"), tins);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void expiredAndUndatedCustomersAreTakenLeastRecentlyCheckedFirst() {
+		LocalDate today = LocalDate.now();
+		Instant now = Instant.now();
+		// TIN from setUp has no renewedTo on any business: undated, never checked
+		customerExpiring("0000000001", today.minusDays(1));
+		customerExpiring("0000000002", today.minusDays(30));
+		customerExpiring("0000000003", today.minusDays(5));
+		customerExpiring("0000000004", today.plusDays(3));
+		checkRepository.save(new RenewalRefreshCheck("0000000001", now.minus(Duration.ofDays(8))));
+		checkRepository.save(new RenewalRefreshCheck("0000000002", now.minus(Duration.ofDays(10))));
+		checkRepository.save(new RenewalRefreshCheck("0000000003", now.minus(Duration.ofDays(1))));
+		entityManager.flush();
+
+		List<String> tins = repository.findTinsWithExpiredRenewal(today, now.minus(Duration.ofDays(7)),
+				PageRequest.of(0, 10));
+
+		assertEquals(List.of(TIN, "0000000002", "0000000001"), tins);
+		assertEquals(List.of(TIN, "0000000002"), repository.findTinsWithExpiredRenewal(today,
+				now.minus(Duration.ofDays(7)), PageRequest.of(0, 2)));
+	}
+
+	private void customerExpiring(String tin, LocalDate renewedTo) {
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin(tin);
+		CompanyBusiness business = new CompanyBusiness();
+		business.setLicenceNumber("LIC-" + tin);
+		business.setRenewedTo(renewedTo);
+		customer.getBusinesses().add(business);
+		customer.summarizeRenewals();
+		repository.save(customer);
+	}
+}
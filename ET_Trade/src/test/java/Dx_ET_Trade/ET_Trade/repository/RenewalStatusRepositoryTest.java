@@ -0,0 +1,146 @@
+package Dx_ET_Trade.ET_Trade.repository;
+
+import Dx_ET_Trade.ET_Trade.dto.RenewalStatusDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import Dx_ET_Trade.ET_Trade.model.CompanyAddress;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(RenewalStatusRepository.class)
+class RenewalStatusRepositoryTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Autowired
+	private RenewalStatusRepository repository;
+
+	@Autowired
+	private CompanyCustomerRepository customerRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void setUp() {
+		CompanyCustomer addis = customer("0011111111", "Addis Trading PLC");
+		addis.getBusinesses().add(business("A-EXPIRED", TODAY.minusDays(10), "Addis Ababa", 1));
+		addis.getBusinesses().add(business("A-DUE", TODAY.plusDays(5), "Oromia", 2));
+		addis.getBusinesses().add(business("A-LATER", TODAY.plusDays(60), "Addis Ababa", 1));
+		addis.getBusinesses().add(business("A-UNKNOWN", null, "Addis Ababa", 1));
+		CompanyCustomer tana = customer("0022222222", "Tana Import");
+		// Same renewed_to as A-DUE: only the id orders the two
+		tana.getBusinesses().add(business("T-DUE", TODAY.plusDays(5), "Addis Ababa", 1));
+		tana.getBusinesses().add(business("T-TODAY", TODAY, "Amhara", 3));
+		customerRepository.save(addis);
+		customerRepository.save(tana);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private static CompanyCustomer customer(String tin, String name) {
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin(tin);
+		customer.setBusinessName(name);
+		return customer;
+	}
+
+	private static CompanyBusiness business(String licenceNumber, LocalDate renewedTo, String region, int subGroupCode) {
+		CompanyBusiness business = new CompanyBusiness();
+		business.setLicenceNumber(licenceNumber);
+		business.setTradesName(licenceNumber + " Shop");
+		business.setRenewedTo(renewedTo);
+		CompanyAddress address = new CompanyAddress();
+		address.setRegion(region);
+		business.setAddress(address);
+		business.getSubGroupCodes().add(subGroupCode);
+		return business;
+	}
+
+	private List<RenewalStatusDto> stream(String region, Integer subGroupCode,
+										  RenewalStatusRepository.Cursor after, Integer limit) {
+		List<RenewalStatusDto> rows = new ArrayList<>();
+		repository.streamDueBy(TODAY.plusDays(30), region, subGroupCode, after, limit, rows::add);
+		return rows;
+	}
+
+	private static List<String> licences(List<RenewalStatusDto> rows) {
+		return rows.stream().map(RenewalStatusDto::getLicenceNumber).toList();
+	}
+
+	@Test
+	void rowsDueByTheCutoffComeInRenewedToOrder() {
+		List<RenewalStatusDto> rows = stream(null, null, null, null);
+
+		assertEquals(4, rows.size());
+		assertEquals("A-EXPIRED", rows.get(0).getLicenceNumber());
+		assertEquals("T-TODAY", rows.get(1).getLicenceNumber());
+		assertTrue(List.of("A-DUE", "T-DUE").containsAll(licences(rows.subList(2, 4))));
+
+		RenewalStatusDto expired = rows.get(0);
+		assertEquals("0011111111", expired.getTin());
+		assertEquals("Addis Trading PLC", expired.getBusinessName());
+		assertEquals("A-EXPIRED Shop", expired.getTradeName());
+		assertEquals("Addis Ababa", expired.getRegion());
+		assertEquals(TODAY.minusDays(10), expired.getRenewedTo());
+		assertTrue(expired.isExpired());
+		// Expires at the end of today, so not expired yet
+		assertFalse(rows.get(1).isExpired());
+	}
+
+	@Test
+	void pagesResumeAfterTheCursorWithoutSkippingOrRepeatingTies() {
+		List<RenewalStatusDto> all = stream(null, null, null, null);
+
+		List<RenewalStatusDto> paged = new ArrayList<>();
+		RenewalStatusRepository.Cursor after = null;
+		List<RenewalStatusDto> page;
+		do {
+			page = stream(null, null, after, 1);
+			paged.addAll(page);
+			if (!page.isEmpty()) {
+				after = RenewalStatusRepository.Cursor.parse(page.get(page.size() - 1).getCursor());
+			}
+		} while (!page.isEmpty());
+
+		assertEquals(licences(all), licences(paged));
+	}
+
+	@Test
+	void regionAndSubGroupFiltersNarrowTheRows() {
+		assertEquals(List.of("A-EXPIRED", "T-DUE"), licences(stream(" Addis Ababa ", null, null, null)));
+		assertEquals(List.of("A-EXPIRED", "T-DUE"), licences(stream(null, 1, null, null)));
+		assertEquals(List.of("A-DUE"), licences(stream("Oromia", 2, null, null)));
+		assertEquals(List.of(), licences(stream("Oromia", 1, null, null)));
+	}
+
+	@Test
+	void cursorRoundTripsAndRejectsGarbage() {
+		RenewalStatusRepository.Cursor cursor = new RenewalStatusRepository.Cursor(LocalDate.of(2025, 3, 1), 12345);
+
+		assertEquals("2025-03-01_12345", cursor.toString());
+		assertEquals(cursor, RenewalStatusRepository.Cursor.parse("2025-03-01_12345"));
+		assertThrows(Syncexception.class, () -> RenewalStatusRepository.Cursor.parse("2025-03-01"));
+		assertThrows(Syncexception.class, () -> RenewalStatusRepository.Cursor.parse("2025-13-01_1"));
+		assertThrows(Syncexception.class, () -> RenewalStatusRepository.Cursor.parse("2025-03-01_x"));
+	}
+}
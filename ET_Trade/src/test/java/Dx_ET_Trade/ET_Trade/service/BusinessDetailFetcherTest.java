@@ -0,0 +1,66 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BusinessDetailFetcherTest {
+
+	private static final String TIN = "0012345678";
+
+	private static GovBusinessDto business(String licenceNumber) {
+		GovBusinessDto business = new GovBusinessDto();
+		business.setLicenceNumber(licenceNumber);
+		return business;
+	}
+
+	@Test
+	void fetchRejectedBySaturatedPoolFailsInsteadOfRunningOnTheCaller() {
+		AtomicInteger submissions = new AtomicInteger();
+		Executor rejectingSecond = task -> {
+			if (submissions.incrementAndGet() == 2) {
+				throw new RejectedExecutionException("queue full");
+			}
+			task.run();
+		};
+		GovApiClient govApiClient = mock(GovApiClient.class);
+		when(govApiClient.getBusinessByLicenseNo(anyString(), anyString(), anyString()))
+				.thenAnswer(invocation -> new GovBusinessDetailDto());
+		BusinessDetailFetcher fetcher = new BusinessDetailFetcher(rejectingSecond);
+		ReflectionTestUtils.setField(fetcher, "maxConcurrencyPerTin", 4);
+		int[] progress = new int[2];
+		GovFetchContext context = new GovFetchContext(govApiClient)
+				.onProgress((processed, total) -> {
+					progress[0] = processed;
+					progress[1] = total;
+				});
+
+		List<BusinessDetailFetcher.FetchResult> results = fetcher.fetchAll(context, TIN,
+				List.of(business("AA/1/1"), business("AA/1/2"), business("AA/1/3")), 3, "en");
+
+		assertEquals(3, results.size());
+		assertNotNull(results.get(0).getDetail());
+		assertNull(results.get(1).getDetail());
+		assertInstanceOf(RejectedExecutionException.class, results.get(1).getError());
+		assertNotNull(results.get(2).getDetail());
+		verify(govApiClient, never()).getBusinessByLicenseNo("AA/1/2", TIN, "en");
+		assertEquals(3, progress[0]);
+		assertEquals(3, progress[1]);
+	}
+}
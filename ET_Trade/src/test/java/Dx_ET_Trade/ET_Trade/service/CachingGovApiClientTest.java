@@ -0,0 +1,191 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingGovApiClientTest {
+
+	private static final String TIN = "0012345678";
+	private static final String LICENSE = "AA/1/1";
+	private static final Duration TTL = Duration.ofDays(1);
+	private static final Duration EXPIRED_TTL = Duration.ofMinutes(5);
+	private static final Duration NOT_FOUND_TTL = Duration.ofMinutes(2);
+
+	// 10:00 on 2026-10-18: a document renewed to today lives until midnight, 14 hours
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+	private static final LocalDate TODAY = LocalDate.now(CLOCK);
+
+	private final GovApiClientService delegate = mock(GovApiClientService.class);
+	private final AtomicLong nanos = new AtomicLong();
+	private final CachingGovApiClient client = new CachingGovApiClient(delegate, new SimpleMeterRegistry(),
+			100, 100, TTL, EXPIRED_TTL, 100, NOT_FOUND_TTL, CLOCK, nanos::get);
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+
+	private static String govDate(LocalDate date) {
+		return date.format(DateTimeFormatter.ofPattern("M/d/yyyy"));
+	}
+
+	private static GovBusinessDetailDto detail(LocalDate renewedTo) {
+		GovBusinessDetailDto detail = new GovBusinessDetailDto();
+		detail.setRenewedTo(renewedTo != null ? govDate(renewedTo) : null);
+		return detail;
+	}
+
+	private static GovRegistrationInfoDto registration(LocalDate... renewedTo) {
+		GovRegistrationInfoDto info = new GovRegistrationInfoDto();
+		info.setBusinesses(Arrays.stream(renewedTo).map(date -> {
+			GovBusinessDto business = new GovBusinessDto();
+			business.setRenewedTo(govDate(date));
+			return business;
+		}).toList());
+		return info;
+	}
+
+	@Test
+	void responsesAreCachedPerKey() {
+		GovRegistrationInfoDto info = registration(TODAY.plusYears(1));
+		when(delegate.getRegistrationInfoByTin(TIN)).thenReturn(info);
+		when(delegate.getRegistrationInfoByTin("0099999999")).thenReturn(registration(TODAY.plusYears(1)));
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "en")).thenReturn(detail(TODAY.plusYears(1)));
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "am")).thenReturn(detail(TODAY.plusYears(1)));
+
+		assertSame(info, client.getRegistrationInfoByTin(TIN));
+		assertSame(info, client.getRegistrationInfoByTin(TIN));
+		client.getRegistrationInfoByTin("0099999999");
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		client.getBusinessByLicenseNo(LICENSE, TIN, "am");
+
+		verify(delegate, times(1)).getRegistrationInfoByTin(TIN);
+		verify(delegate, times(1)).getRegistrationInfoByTin("0099999999");
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "am");
+		assertEquals(1, client.getRegistrationStats().hitCount());
+		assertEquals(2, client.getRegistrationStats().missCount());
+		assertEquals(1, client.getBusinessDetailStats().hitCount());
+		assertEquals(2, client.getBusinessDetailStats().missCount());
+	}
+
+	@Test
+	void entryLivesForTheTtlWhenRenewedToIsFurtherAway() {
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "en")).thenReturn(detail(TODAY.plusYears(1)));
+
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		advance(TTL.minusMinutes(1));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+
+		advance(Duration.ofMinutes(2));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(2)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+	}
+
+	@Test
+	void entryExpiresAtTheEndOfItsRenewedToDay() {
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "en")).thenReturn(detail(TODAY));
+
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		advance(Duration.ofHours(13));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+
+		// Past midnight the license is due and is read from the government again
+		advance(Duration.ofHours(2));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(2)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+	}
+
+	@Test
+	void registrationExpiresWithItsEarliestRenewedTo() {
+		when(delegate.getRegistrationInfoByTin(TIN)).thenReturn(registration(TODAY.plusYears(1), TODAY));
+
+		client.getRegistrationInfoByTin(TIN);
+		advance(Duration.ofHours(15));
+		client.getRegistrationInfoByTin(TIN);
+
+		verify(delegate, times(2)).getRegistrationInfoByTin(TIN);
+	}
+
+	@Test
+	void expiredOrUndatedDocumentsAreKeptBriefly() {
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "en")).thenReturn(detail(TODAY.minusDays(1)));
+		when(delegate.getBusinessByLicenseNo("AA/1/2", TIN, "en")).thenReturn(detail(null));
+
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		client.getBusinessByLicenseNo("AA/1/2", TIN, "en");
+		advance(EXPIRED_TTL.minusMinutes(1));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		client.getBusinessByLicenseNo("AA/1/2", TIN, "en");
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(1)).getBusinessByLicenseNo("AA/1/2", TIN, "en");
+
+		advance(Duration.ofMinutes(2));
+		client.getBusinessByLicenseNo(LICENSE, TIN, "en");
+		client.getBusinessByLicenseNo("AA/1/2", TIN, "en");
+		verify(delegate, times(2)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+		verify(delegate, times(2)).getBusinessByLicenseNo("AA/1/2", TIN, "en");
+	}
+
+	@Test
+	void transportFailuresAreNeverCached() {
+		GovRegistrationInfoDto info = registration(TODAY.plusYears(1));
+		when(delegate.getRegistrationInfoByTin(TIN))
+				.thenThrow(new ResourceAccessException("connect timed out"))
+				.thenThrow(new GovApiUnavailableException("circuit open"))
+				.thenReturn(info);
+
+		assertThrows(ResourceAccessException.class, () -> client.getRegistrationInfoByTin(TIN));
+		assertThrows(GovApiUnavailableException.class, () -> client.getRegistrationInfoByTin(TIN));
+		assertSame(info, client.getRegistrationInfoByTin(TIN));
+		verify(delegate, times(3)).getRegistrationInfoByTin(TIN);
+	}
+
+	@Test
+	void notFoundIsRememberedForTheNotFoundTtl() {
+		when(delegate.getRegistrationInfoByTin(TIN)).thenThrow(new GovApiNotFoundException("TIN not found: " + TIN));
+		when(delegate.getBusinessByLicenseNo(LICENSE, TIN, "en")).thenThrow(new GovApiNotFoundException("Invalid license"));
+
+		for (int i = 0; i < 3; i++) {
+			GovApiNotFoundException miss = assertThrows(GovApiNotFoundException.class,
+					() -> client.getRegistrationInfoByTin(TIN));
+			assertEquals("TIN not found: " + TIN, miss.getMessage());
+			assertThrows(GovApiNotFoundException.class, () -> client.getBusinessByLicenseNo(LICENSE, TIN, "en"));
+		}
+		verify(delegate, times(1)).getRegistrationInfoByTin(TIN);
+		verify(delegate, times(1)).getBusinessByLicenseNo(LICENSE, TIN, "en");
+
+		advance(NOT_FOUND_TTL.plusSeconds(1));
+		assertThrows(GovApiNotFoundException.class, () -> client.getRegistrationInfoByTin(TIN));
+		verify(delegate, times(2)).getRegistrationInfoByTin(TIN);
+		// A miss of one key says nothing about another
+		when(delegate.getRegistrationInfoByTin("0099999999")).thenReturn(registration());
+		client.getRegistrationInfoByTin("0099999999");
+		verify(delegate, times(1)).getRegistrationInfoByTin("0099999999");
+	}
+}
@@ -0,0 +1,114 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.GovAddressDto;
+import Dx_ET_Trade.ET_Trade.dto.GovAssociateDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+import Dx_ET_Trade.ET_Trade.dto.GovSubGroupDto;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Government API stand-in for the sync tests: every TIN has {@link #BUSINESSES}
+ * licenses (LIC-0, LIC-1, ...) of {@link #SUBGROUPS} subgroups each. Tests
+ * change its answers through the fields; {@link #reset()} restores them.
+ */
+class FakeGovApiClient implements GovApiClient {
+
+	static final int BUSINESSES = 40;
+	static final int SUBGROUPS = 10;
+	static final int ASSOCIATES = 3;
+
+	static final String DETAIL_RENEWED_TO = "7/7/2030";
+
+	// Replaces subgroup 1 of license LIC-0 with this code when set
+	volatile Integer changedCode;
+
+	// Upstream description of every subgroup when set
+	volatile String changedDescription;
+
+	// renewedTo listed for a license in the registration info; other licenses list none
+	final Map<String, String> listedRenewedTo = new ConcurrentHashMap<>();
+
+	// Licenses whose detail fetch fails
+	final Set<String> failingDetails = ConcurrentHashMap.newKeySet();
+
+	// TINs the government does not know
+	final Set<String> unknownTins = ConcurrentHashMap.newKeySet();
+
+	final AtomicInteger registrationFetches = new AtomicInteger();
+	final AtomicInteger detailFetches = new AtomicInteger();
+
+	void reset() {
+		changedCode = null;
+		changedDescription = null;
+		listedRenewedTo.clear();
+		unknownTins.clear();
+		failingDetails.clear();
+		registrationFetches.set(0);
+		detailFetches.set(0);
+	}
+
+	// Lists every license with the renewedTo its detail has
+	void listStoredDates() {
+		for (int i = 0; i < BUSINESSES; i++) {
+			listedRenewedTo.put("LIC-" + i, DETAIL_RENEWED_TO);
+		}
+	}
+
+	@Override
+	public GovRegistrationInfoDto getRegistrationInfoByTin(String tin) {
+		registrationFetches.incrementAndGet();
+		if (unknownTins.contains(tin)) {
+			throw new GovApiNotFoundException("Registration info not found for TIN: " + tin);
+		}
+		GovRegistrationInfoDto info = new GovRegistrationInfoDto();
+		info.setTin(tin);
+		info.setBusinessName("Benchmark Trading");
+		info.setRegDate("1/15/2020");
+		List<GovAssociateDto> associates = new ArrayList<>();
+		for (int i = 0; i < ASSOCIATES; i++) {
+			associates.add(new GovAssociateDto("Manager", "Name " + i, "Name " + i,
+					"cGhvdG8t" + i, "0911000000", null));
+		}
+		info.setAssociateShortInfos(associates);
+		List<GovBusinessDto> businesses = new ArrayList<>();
+		for (int i = 0; i < BUSINESSES; i++) {
+			GovBusinessDto business = new GovBusinessDto();
+			business.setLicenceNumber("LIC-" + i);
+			business.setRenewedTo(listedRenewedTo.get(business.getLicenceNumber()));
+			businesses.add(business);
+		}
+		info.setBusinesses(businesses);
+		return info;
+	}
+
+	@Override
+	public GovBusinessDetailDto getBusinessByLicenseNo(String licenseNo, String tin, String lang) {
+		detailFetches.incrementAndGet();
+		if (failingDetails.contains(licenseNo)) {
+			throw new IllegalStateException("Detail of license " + licenseNo + " timed out");
+		}
+		GovBusinessDetailDto detail = new GovBusinessDetailDto();
+		detail.setLicenceNumber(licenseNo);
+		detail.setTradeName("Trade " + licenseNo);
+		detail.setRenewedTo(DETAIL_RENEWED_TO);
+		detail.setAddressInfo(new GovAddressDto("Addis Ababa", "Zone", "Woreda", "Kebele", "1", null, null));
+		List<GovSubGroupDto> subGroups = new ArrayList<>();
+		for (int code = 1; code <= SUBGROUPS; code++) {
+			GovSubGroupDto subGroup = new GovSubGroupDto();
+			subGroup.setCode(code == 1 && changedCode != null && licenseNo.equals("LIC-0") ? changedCode : code);
+			subGroup.setDescription(changedDescription != null ? changedDescription : "Group " + subGroup.getCode());
+			subGroups.add(subGroup);
+		}
+		detail.setSubGroups(subGroups);
+		return detail;
+	}
+}
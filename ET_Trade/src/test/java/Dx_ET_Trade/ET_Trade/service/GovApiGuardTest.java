@@ -0,0 +1,98 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
+import Dx_ET_Trade.ET_Trade.util.AdaptiveConcurrencyLimiter;
+import Dx_ET_Trade.ET_Trade.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GovApiGuardTest {
+
+	private static final String ENDPOINT = "registration";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdaptiveConcurrencyLimiter limiter =
+			new AdaptiveConcurrencyLimiter(1, 1, 4, 0.5, Duration.ofSeconds(2).toNanos());
+	// Opens once half of at least 2 calls failed
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 4, 2, Duration.ofMinutes(1), 1);
+	private final GovApiGuard guard = new GovApiGuard(ENDPOINT, circuitBreaker, limiter, meterRegistry);
+
+	private double calls(String outcome) {
+		return meterRegistry.counter("gov.api.calls", "endpoint", ENDPOINT, "outcome", outcome).count();
+	}
+
+	@Test
+	void callBeyondTheConcurrencyLimitIsUnavailable() {
+		GovApiUnavailableException rejected = guard.call(() ->
+				assertThrows(GovApiUnavailableException.class, () -> guard.call(() -> "second")));
+
+		assertTrue(rejected.getMessage().contains("concurrency limit 1"));
+		assertEquals(1, calls("rejected"));
+		assertEquals(1, calls("success"));
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void openCircuitIsUnavailableWithoutCallingTheEndpoint() {
+		AtomicInteger attempts = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			assertThrows(ResourceAccessException.class, () -> guard.call(() -> {
+				attempts.incrementAndGet();
+				throw new ResourceAccessException("connect timed out");
+			}));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+
+		GovApiUnavailableException rejected = assertThrows(GovApiUnavailableException.class,
+				() -> guard.call(() -> attempts.incrementAndGet()));
+		assertTrue(rejected.getMessage().contains("temporarily unavailable"));
+		assertEquals(2, attempts.get());
+		assertEquals(2, calls("failure"));
+		assertEquals(1, calls("rejected"));
+		// The rejected call gave its concurrency slot back
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void serverErrorsAndTooManyRequestsCountAsFailures() {
+		assertThrows(HttpServerErrorException.class, () -> guard.call(() -> {
+			throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+		}));
+		assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+			throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+		}));
+
+		assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+		assertEquals(2, calls("failure"));
+	}
+
+	@Test
+	void notFoundAndUnusableAnswersKeepTheCircuitClosed() {
+		for (int i = 0; i < 4; i++) {
+			assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+				throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+			}));
+			assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+				throw new IllegalStateException("unparseable body");
+			}));
+		}
+
+		assertEquals(CircuitBreaker.State.CLOSED, guard.getState());
+		assertEquals(8, calls("success"));
+		assertEquals(0, calls("failure"));
+		// The 404s were fast answers from a healthy endpoint: the limit grew
+		assertTrue(limiter.getLimit() > 1);
+		assertEquals("ok", guard.call(() -> "ok"));
+	}
+}
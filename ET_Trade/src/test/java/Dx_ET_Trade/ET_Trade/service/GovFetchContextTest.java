@@ -0,0 +1,98 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.GovBusinessDetailDto;
+import Dx_ET_Trade.ET_Trade.dto.GovRegistrationInfoDto;
+import Dx_ET_Trade.ET_Trade.exception.GovApiUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GovFetchContextTest {
+
+	private static final String TIN = "0012345678";
+
+	private final GovApiClient govApiClient = mock(GovApiClient.class);
+	private final GovFetchContext context = new GovFetchContext(govApiClient);
+	private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersShareOneFetch() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		GovBusinessDetailDto detail = new GovBusinessDetailDto();
+		when(govApiClient.getBusinessByLicenseNo("AA/1/1", TIN, "en")).thenAnswer(invocation -> {
+			fetching.countDown();
+			release.await();
+			return detail;
+		});
+
+		Future<GovBusinessDetailDto> first = pool.submit(() -> context.getBusinessByLicenseNo("AA/1/1", TIN, "en"));
+		assertTrue(fetching.await(5, TimeUnit.SECONDS));
+		Future<GovBusinessDetailDto> second = pool.submit(() -> context.getBusinessByLicenseNo("AA/1/1", TIN, "en"));
+		release.countDown();
+
+		assertSame(detail, first.get(5, TimeUnit.SECONDS));
+		assertSame(detail, second.get(5, TimeUnit.SECONDS));
+		assertSame(detail, context.getBusinessByLicenseNo("AA/1/1", TIN, "en"));
+		verify(govApiClient, times(1)).getBusinessByLicenseNo("AA/1/1", TIN, "en");
+	}
+
+	@Test
+	void otherKeysAreFetchedWhileOneIsInFlight() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(govApiClient.getBusinessByLicenseNo("AA/1/1", TIN, "en")).thenAnswer(invocation -> {
+			fetching.countDown();
+			release.await();
+			return new GovBusinessDetailDto();
+		});
+		GovRegistrationInfoDto info = new GovRegistrationInfoDto();
+		when(govApiClient.getRegistrationInfoByTin(TIN)).thenReturn(info);
+
+		try {
+			Future<GovBusinessDetailDto> slow = pool.submit(() -> context.getBusinessByLicenseNo("AA/1/1", TIN, "en"));
+			assertTrue(fetching.await(5, TimeUnit.SECONDS));
+
+			for (int i = 0; i < 100; i++) {
+				when(govApiClient.getBusinessByLicenseNo("AA/2/" + i, TIN, "en")).thenReturn(new GovBusinessDetailDto());
+				context.getBusinessByLicenseNo("AA/2/" + i, TIN, "en");
+			}
+			assertSame(info, context.getRegistrationInfoByTin(TIN));
+			assertFalse(slow.isDone());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void failedFetchIsNotRemembered() {
+		GovRegistrationInfoDto info = new GovRegistrationInfoDto();
+		when(govApiClient.getRegistrationInfoByTin(TIN))
+				.thenThrow(new GovApiUnavailableException("circuit open"))
+				.thenReturn(info);
+
+		assertThrows(GovApiUnavailableException.class, () -> context.getRegistrationInfoByTin(TIN));
+		assertSame(info, context.getRegistrationInfoByTin(TIN));
+		assertSame(info, context.getRegistrationInfoByTin(TIN));
+		verify(govApiClient, times(2)).getRegistrationInfoByTin(TIN);
+	}
+}
@@ -0,0 +1,92 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.BusinessResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.Syncexception;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(LicenseRenewalService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LicenseRenewalServiceTest {
+
+	private static final String TIN = "0077777777";
+	private static final LocalDate RENEWED_TO = LocalDate.of(2031, 7, 7);
+
+	@Autowired
+	private LicenseRenewalService renewalService;
+
+	@Autowired
+	private CompanyCustomerRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> repository.deleteAll());
+		transaction.executeWithoutResult(status -> {
+			CompanyCustomer customer = new CompanyCustomer();
+			customer.setTin(TIN);
+			for (int i = 0; i < 2; i++) {
+				CompanyBusiness business = new CompanyBusiness();
+				business.setLicenceNumber("LIC-" + i);
+				business.setRenewedTo(LocalDate.of(2025, 1, 1));
+				customer.getBusinesses().add(business);
+			}
+			customer.summarizeRenewals();
+			repository.save(customer);
+		});
+	}
+
+	@Test
+	void retriedRequestIsNotAppliedTwice() {
+		BusinessResponseDto first = renewalService.renew("LIC-1", null, RENEWED_TO, "key-1");
+		BusinessResponseDto retried = renewalService.renew("LIC-1", null, RENEWED_TO, "key-1");
+
+		assertEquals(RENEWED_TO, first.getRenewedTo());
+		assertEquals(RENEWED_TO, retried.getRenewedTo());
+		assertEquals("License renewal already applied for this Idempotency-Key", retried.getMessage());
+		// One update of the target row only
+		assertEquals(1L, version("LIC-1"));
+		assertEquals(0L, version("LIC-0"));
+		// The owner's renewal summary moved with it
+		CompanyCustomer customer = repository.findByTin(TIN).orElseThrow();
+		assertEquals(RENEWED_TO, customer.getLatestRenewedTo());
+		assertEquals(LocalDate.of(2025, 1, 1), customer.getEarliestRenewedTo());
+
+		assertThrows(Syncexception.class, () -> renewalService.renew("LIC-0", null, RENEWED_TO, "key-1"));
+	}
+
+	@Test
+	void renewalBehindCurrentExpiryIsRejected() {
+		renewalService.renew("LIC-0", TIN, RENEWED_TO, null);
+
+		assertThrows(Syncexception.class, () -> renewalService.renew("LIC-0", TIN, RENEWED_TO.minusYears(1), null));
+	}
+
+	private Long version(String licenseNo) {
+		return new TransactionTemplate(transactionManager).execute(status ->
+				repository.findBusinessesByTinAndLicence(TIN, licenseNo).get(0).getVersion());
+	}
+}
@@ -0,0 +1,71 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.model.AssociatePhoto;
+import Dx_ET_Trade.ET_Trade.repository.AssociatePhotoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// H2 in PostgreSQL mode for the "on conflict do nothing" insert
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:photos;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(PhotoStore.class)
+class PhotoStoreTest {
+
+	private static final String PHOTO = "iVBORw0KGgoAAAANSUhEUg==";
+
+	@Autowired
+	private PhotoStore photoStore;
+
+	@Autowired
+	private AssociatePhotoRepository repository;
+
+	@Test
+	void samePhotoIsStoredOnce() {
+		String first = photoStore.store(PHOTO);
+		// The same manager on another customer, with the whitespace the API sometimes adds
+		String second = photoStore.store("\n" + PHOTO + " ");
+
+		assertEquals(first, second);
+		assertEquals(1, repository.count());
+		AssociatePhoto stored = repository.findById(first).orElseThrow();
+		assertEquals(PHOTO, stored.getData());
+		assertEquals(PHOTO.length(), stored.getSize());
+	}
+
+	@Test
+	void differentPhotosAreStoredApart() {
+		String first = photoStore.store(PHOTO);
+		String second = photoStore.store("/9j/4AAQSkZJRg==");
+
+		assertNotEquals(first, second);
+		assertEquals(2, repository.count());
+	}
+
+	@Test
+	void photosDifferingOnlyOutsideAsciiAreStoredApart() {
+		// Not valid base64, but whatever the API sends must not share a content key
+		String first = photoStore.store(PHOTO + "é");
+		String second = photoStore.store(PHOTO + "ü");
+
+		assertNotEquals(first, second);
+		assertEquals(2, repository.count());
+	}
+
+	@Test
+	void emptyPhotoIsNotStored() {
+		assertNull(photoStore.store(null));
+		assertNull(photoStore.store("  "));
+		assertEquals(0, repository.count());
+	}
+}
@@ -0,0 +1,44 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JDBC round trips seen by the test data source (statement executions, a
+ * batch counting as one), how many of them were inserts, updates or deletes,
+ * and how many fetched sequence values.
+ */
+class StatementCounter {
+
+	private final AtomicInteger executions = new AtomicInteger();
+	private final AtomicInteger writes = new AtomicInteger();
+	private final AtomicInteger sequenceFetches = new AtomicInteger();
+
+	void reset() {
+		executions.set(0);
+		writes.set(0);
+		sequenceFetches.set(0);
+	}
+
+	void record(boolean write, boolean sequenceFetch) {
+		executions.incrementAndGet();
+		if (write) {
+			writes.incrementAndGet();
+		}
+		if (sequenceFetch) {
+			sequenceFetches.incrementAndGet();
+		}
+	}
+
+	int executions() {
+		return executions.get();
+	}
+
+	// Executions other than sequence fetches
+	int roundTrips() {
+		return executions.get() - sequenceFetches.get();
+	}
+
+	int writes() {
+		return writes.get();
+	}
+}
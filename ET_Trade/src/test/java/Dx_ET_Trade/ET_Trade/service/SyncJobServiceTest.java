@@ -0,0 +1,289 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.SyncJobDto;
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.model.SyncJob;
+import Dx_ET_Trade.ET_Trade.model.SyncJobStatus;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import Dx_ET_Trade.ET_Trade.repository.SyncJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Not transactional: the service commits each job update, like it does in production
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyncJobServiceTest {
+
+	private static final String TIN = "0055555555";
+	private static final Duration LEASE = Duration.ofMinutes(1);
+	private static final Duration RETENTION = Duration.ofDays(7);
+	private static final int PROGRESS_EVERY = 10;
+
+	@Autowired
+	private SyncJobRepository syncJobRepository;
+
+	@Autowired
+	private CompanyCustomerRepository companyCustomerRepository;
+
+	private SyncService syncService;
+	private final List<Runnable> dispatched = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		syncJobRepository.deleteAll();
+		companyCustomerRepository.deleteAll();
+		syncService = mock(SyncService.class);
+		dispatched.clear();
+	}
+
+	private SyncJobService newInstance() {
+		return new SyncJobService(syncJobRepository, syncService, mock(GovApiClient.class),
+				companyCustomerRepository, dispatched::add, LEASE, RETENTION, PROGRESS_EVERY);
+	}
+
+	private void runDispatched() {
+		List<Runnable> tasks = new ArrayList<>(dispatched);
+		dispatched.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+	private SyncJob reload(String id) {
+		return syncJobRepository.findById(id).orElseThrow();
+	}
+
+	private static SyncResponseDto response() {
+		return new SyncResponseDto(TIN, "Abebe Trading", "SYNCED", LocalDate.of(2030, 7, 7), true, "Synced");
+	}
+
+	private SyncJob saveJob(SyncJobStatus status, String leaseOwner, Instant leaseExpiresAt, Instant finishedAt) {
+		SyncJob job = new SyncJob();
+		job.setId(UUID.randomUUID().toString());
+		job.setTin(TIN);
+		job.setStatus(status);
+		job.setCreatedAt(Instant.now().minus(Duration.ofDays(30)));
+		job.setLeaseOwner(leaseOwner);
+		job.setLeaseExpiresAt(leaseExpiresAt);
+		job.setFinishedAt(finishedAt);
+		return syncJobRepository.save(job);
+	}
+
+	@Test
+	void submittedJobSucceedsWithItsProgress() {
+		when(syncService.syncCustomerData(eq(TIN), any())).thenAnswer(invocation -> {
+			GovFetchContext fetchContext = invocation.getArgument(1);
+			fetchContext.reportProgress(1, 3);
+			fetchContext.reportProgress(3, 3);
+			return response();
+		});
+
+		SyncJobDto submitted = newInstance().submit(TIN);
+		assertEquals("QUEUED", submitted.getStatus());
+		runDispatched();
+
+		SyncJob job = reload(submitted.getId());
+		assertEquals(SyncJobStatus.SUCCEEDED, job.getStatus());
+		assertEquals(3, job.getProcessedLicenses());
+		assertEquals(3, job.getTotalLicenses());
+		assertEquals("Abebe Trading", job.getBusinessName());
+		assertTrue(job.getStartedAt() != null && job.getFinishedAt() != null);
+	}
+
+	@Test
+	void progressIsWrittenEveryProgressEveryLicenses() {
+		List<Integer> seen = new ArrayList<>();
+		String[] jobId = new String[1];
+		when(syncService.syncCustomerData(eq(TIN), any())).thenAnswer(invocation -> {
+			GovFetchContext fetchContext = invocation.getArgument(1);
+			for (int processed = 0; processed <= 25; processed++) {
+				fetchContext.reportProgress(processed, 25);
+				seen.add(reload(jobId[0]).getProcessedLicenses());
+			}
+			return response();
+		});
+
+		jobId[0] = newInstance().submit(TIN).getId();
+		runDispatched();
+
+		assertEquals(0, seen.get(0));
+		assertEquals(0, seen.get(9));
+		assertEquals(10, seen.get(10));
+		assertEquals(20, seen.get(24));
+		assertEquals(25, seen.get(25));
+		assertEquals(SyncJobStatus.SUCCEEDED, reload(jobId[0]).getStatus());
+	}
+
+	@Test
+	void failedJobKeepsItsLastProgress() {
+		String[] jobId = new String[1];
+		when(syncService.syncCustomerData(eq(TIN), any())).thenAnswer(invocation -> {
+			GovFetchContext fetchContext = invocation.getArgument(1);
+			for (int processed = 0; processed <= 7; processed++) {
+				fetchContext.reportProgress(processed, 25);
+			}
+			throw new IllegalStateException("gov api down");
+		});
+
+		jobId[0] = newInstance().submit(TIN).getId();
+		runDispatched();
+
+		SyncJob job = reload(jobId[0]);
+		assertEquals(SyncJobStatus.FAILED, job.getStatus());
+		assertEquals(7, job.getProcessedLicenses());
+		assertEquals(25, job.getTotalLicenses());
+	}
+
+	@Test
+	void jobAnsweredWithoutFetchingRecordsTheStoredLicenses() {
+		// Rule 1 and coalesced syncs report no progress to the job's own context
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin(TIN);
+		for (int i = 0; i < 2; i++) {
+			CompanyBusiness business = new CompanyBusiness();
+			business.setLicenceNumber("LIC-" + i);
+			customer.getBusinesses().add(business);
+		}
+		companyCustomerRepository.save(customer);
+		when(syncService.syncCustomerData(eq(TIN), any())).thenReturn(response());
+
+		SyncJobDto submitted = newInstance().submit(TIN);
+		runDispatched();
+
+		SyncJob job = reload(submitted.getId());
+		assertEquals(SyncJobStatus.SUCCEEDED, job.getStatus());
+		assertEquals(2, job.getProcessedLicenses());
+		assertEquals(2, job.getTotalLicenses());
+	}
+
+	@Test
+	void failedSyncFailsTheJob() {
+		when(syncService.syncCustomerData(eq(TIN), any())).thenThrow(new IllegalStateException("gov api down"));
+
+		SyncJobDto submitted = newInstance().submit(TIN);
+		runDispatched();
+
+		SyncJob job = reload(submitted.getId());
+		assertEquals(SyncJobStatus.FAILED, job.getStatus());
+		assertEquals("gov api down", job.getError());
+	}
+
+	@Test
+	void jobWithALiveLeaseIsNotResumed() {
+		SyncJob running = saveJob(SyncJobStatus.RUNNING, "other-instance", Instant.now().plus(LEASE), null);
+
+		newInstance().resumeAbandonedJobs();
+
+		assertTrue(dispatched.isEmpty());
+		assertEquals("other-instance", reload(running.getId()).getLeaseOwner());
+	}
+
+	@Test
+	void jobWithALapsedLeaseIsTakenOverByOneInstance() {
+		SyncJob abandoned = saveJob(SyncJobStatus.RUNNING, "stopped-instance", Instant.now().minusSeconds(1), null);
+		when(syncService.syncCustomerData(eq(TIN), any())).thenReturn(response());
+
+		newInstance().resumeAbandonedJobs();
+		newInstance().resumeAbandonedJobs();
+
+		assertEquals(1, dispatched.size());
+		SyncJob claimed = reload(abandoned.getId());
+		assertNotEquals("stopped-instance", claimed.getLeaseOwner());
+		assertTrue(claimed.getLeaseExpiresAt().isAfter(Instant.now()));
+
+		runDispatched();
+		assertEquals(SyncJobStatus.SUCCEEDED, reload(abandoned.getId()).getStatus());
+	}
+
+	@Test
+	void jobTakenOverBeforeItRanIsNotRunHere() {
+		SyncJobDto submitted = newInstance().submit(TIN);
+		SyncJob job = reload(submitted.getId());
+		job.setLeaseOwner("other-instance");
+		syncJobRepository.save(job);
+
+		runDispatched();
+
+		verify(syncService, never()).syncCustomerData(any(), any());
+		assertEquals(SyncJobStatus.QUEUED, reload(submitted.getId()).getStatus());
+	}
+
+	@Test
+	void jobTakenOverWhileRunningIsNotFinishedHere() {
+		String[] jobId = new String[1];
+		Instant renewedUntil = Instant.now().plus(Duration.ofHours(1));
+		when(syncService.syncCustomerData(eq(TIN), any())).thenAnswer(invocation -> {
+			SyncJob job = reload(jobId[0]);
+			job.setLeaseOwner("other-instance");
+			job.setLeaseExpiresAt(renewedUntil);
+			syncJobRepository.save(job);
+			return response();
+		});
+
+		jobId[0] = newInstance().submit(TIN).getId();
+		runDispatched();
+
+		SyncJob job = reload(jobId[0]);
+		assertEquals(SyncJobStatus.RUNNING, job.getStatus());
+		assertEquals("other-instance", job.getLeaseOwner());
+		assertEquals(renewedUntil.toEpochMilli(), job.getLeaseExpiresAt().toEpochMilli());
+		assertEquals(null, job.getFinishedAt());
+	}
+
+	@Test
+	void heartbeatRenewsOnlyTheInstancesOwnLeases() {
+		SyncJobService service = newInstance();
+		SyncJob own = reload(service.submit(TIN).getId());
+		Instant expired = Instant.now().minusSeconds(1);
+		own.setLeaseExpiresAt(expired);
+		syncJobRepository.save(own);
+		SyncJob other = saveJob(SyncJobStatus.RUNNING, "other-instance", expired, null);
+
+		service.renewLeases();
+
+		assertTrue(reload(own.getId()).getLeaseExpiresAt().isAfter(Instant.now()));
+		assertFalse(reload(other.getId()).getLeaseExpiresAt().isAfter(Instant.now()));
+	}
+
+	@Test
+	void finishedJobsArePurgedAfterTheRetention() {
+		Instant longAgo = Instant.now().minus(RETENTION).minus(Duration.ofDays(1));
+		SyncJob oldSucceeded = saveJob(SyncJobStatus.SUCCEEDED, null, null, longAgo);
+		SyncJob oldFailed = saveJob(SyncJobStatus.FAILED, null, null, longAgo);
+		SyncJob recent = saveJob(SyncJobStatus.SUCCEEDED, null, null, Instant.now().minus(Duration.ofDays(1)));
+		SyncJob queued = saveJob(SyncJobStatus.QUEUED, "other-instance", Instant.now().plus(LEASE), null);
+
+		newInstance().purgeFinishedJobs();
+
+		assertFalse(syncJobRepository.existsById(oldSucceeded.getId()));
+		assertFalse(syncJobRepository.existsById(oldFailed.getId()));
+		assertTrue(syncJobRepository.existsById(recent.getId()));
+		assertTrue(syncJobRepository.existsById(queued.getId()));
+	}
+}
@@ -0,0 +1,162 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import Dx_ET_Trade.ET_Trade.dto.SyncResponseDto;
+import Dx_ET_Trade.ET_Trade.exception.GovApiNotFoundException;
+import Dx_ET_Trade.ET_Trade.model.CompanyBusiness;
+import Dx_ET_Trade.ET_Trade.model.CompanyCustomer;
+import Dx_ET_Trade.ET_Trade.repository.CompanyCustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sync behaviour against the fake government API; every test syncs its own TIN.
+ */
+// H2 in PostgreSQL mode for the "on conflict do nothing" inserts of photos and subgroups
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:sync;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false"
+})
+@Import({SyncService.class, BusinessDetailFetcher.class, PhotoStore.class, SubGroupTaxonomy.class, KnownTins.class,
+		SyncTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyncServiceTest {
+
+	@Autowired
+	private SyncService syncService;
+
+	@Autowired
+	private FakeGovApiClient govApi;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private KnownTins knownTins;
+
+	@Autowired
+	private StatementCounter statements;
+
+	@Autowired
+	private CompanyCustomerRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		govApi.reset();
+	}
+
+	@Test
+	void governmentCallsAreTimedApartFromTheWrite() {
+		Timer write = meterRegistry.timer("sync.phase", "operation", "customer", "phase", "write");
+		Timer fetch = meterRegistry.timer("sync.phase", "operation", "customer", "phase", "fetch");
+		long writesBefore = write.count();
+		long fetchesBefore = fetch.count();
+		// A TIN the filter knows goes straight to the snapshot
+		knownTins.rebuild();
+		knownTins.add("0022000001");
+
+		syncService.syncCustomerData("0022000001");
+
+		// Registration info and the license details are two fetch phases, written in one transaction
+		assertEquals(writesBefore + 1, write.count());
+		assertEquals(fetchesBefore + 2, fetch.count());
+	}
+
+	@Test
+	void refreshFetchesDetailsOfChangedLicensesOnly() {
+		syncService.syncCustomerData("0022000002");
+
+		// The other licenses are valid and listed with their stored dates
+		govApi.listStoredDates();
+		govApi.listedRenewedTo.put("LIC-7", "7/7/2031");
+		govApi.detailFetches.set(0);
+		syncService.refreshCustomerData("0022000002");
+
+		assertEquals(1, govApi.detailFetches.get(), "detail fetches");
+	}
+
+	@Test
+	void licenseStoredFromBasicInfoIsFetchedAgain() {
+		// LIC-3 is listed with the dates its detail has, but its detail fetch fails
+		govApi.listStoredDates();
+		govApi.failingDetails.add("LIC-3");
+		syncService.syncCustomerData("0022000005");
+		assertTrue(findLicense("0022000005", "LIC-3").isBasicInfoOnly());
+
+		govApi.failingDetails.clear();
+		govApi.detailFetches.set(0);
+		syncService.refreshCustomerData("0022000005");
+
+		assertEquals(1, govApi.detailFetches.get(), "detail fetches");
+		assertFalse(findLicense("0022000005", "LIC-3").isBasicInfoOnly());
+	}
+
+	@Test
+	void newTinSkipsTheSnapshot() {
+		Timer snapshot = meterRegistry.timer("sync.phase", "operation", "customer", "phase", "snapshot");
+		long snapshotsBefore = snapshot.count();
+		knownTins.rebuild();
+
+		syncService.syncCustomerData("0022000006");
+
+		assertEquals(snapshotsBefore, snapshot.count());
+		assertTrue(repository.existsByTin("0022000006"));
+		assertTrue(knownTins.mightExist("0022000006"));
+	}
+
+	@Test
+	void customerMissingFromAStaleFilterIsMergedNotDuplicated() {
+		knownTins.rebuild();
+		// Created by another instance after the filter was built
+		CompanyCustomer customer = new CompanyCustomer();
+		customer.setTin("0022000003");
+		CompanyBusiness business = new CompanyBusiness();
+		business.setLicenceNumber("LIC-0");
+		business.setRenewedTo(LocalDate.now().plusYears(1));
+		customer.getBusinesses().add(business);
+		customer.summarizeRenewals();
+		Long id = repository.save(customer).getId();
+
+		syncService.syncCustomerData("0022000003");
+
+		CompanyCustomer merged = repository.findWithBusinessesByTin("0022000003").orElseThrow();
+		assertEquals(id, merged.getId());
+		assertTrue(knownTins.mightExist("0022000003"));
+		// The next sync knows the TIN and is answered from the customer row
+		govApi.detailFetches.set(0);
+		syncService.syncCustomerData("0022000003");
+		assertEquals(0, govApi.detailFetches.get(), "detail fetches");
+	}
+
+	@Test
+	void unknownTinNeverReachesTheDatabase() {
+		knownTins.rebuild();
+		govApi.unknownTins.add("0022000004");
+
+		statements.reset();
+		assertThrows(GovApiNotFoundException.class, () -> syncService.syncCustomerData("0022000004"));
+
+		assertEquals(0, statements.executions(), "statements");
+	}
+
+	private CompanyBusiness findLicense(String tin, String licenseNo) {
+		return repository.findBusinessesByTinAndLicence(tin, licenseNo).get(0);
+	}
+}
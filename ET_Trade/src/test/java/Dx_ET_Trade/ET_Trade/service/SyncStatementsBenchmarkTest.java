@@ -0,0 +1,160 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static Dx_ET_Trade.ET_Trade.service.FakeGovApiClient.BUSINESSES;
+import static Dx_ET_Trade.ET_Trade.service.FakeGovApiClient.SUBGROUPS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the JDBC round trips (statement executions, a batch counting as one)
+ * of syncing a customer with 40 businesses of 10 subgroups each. Every test
+ * syncs its own TIN.
+ *
+ * New customer sync, round trips (writes):
+ * <ul>
+ *   <li>before the batching work (identity ids, row-by-row inserts, photos and
+ *       subgroups looked up per row): 931, measured with the old code</li>
+ *   <li>when that work landed: 32, counting sequence fetches and the first
+ *       registration of the subgroup codes</li>
+ *   <li>current code with JDBC batching off ({@link Unbatched}): 488 (487)</li>
+ *   <li>current code, batched: 16 (15)</li>
+ * </ul>
+ * The last two are asserted exactly, so a regression (or an improvement to
+ * record) shows up here. Both count a customer whose subgroup codes and
+ * photos are already stored, and leave out sequence fetches: with pooled ids
+ * (50 per fetch) their number depends on what earlier tests used.
+ */
+// H2 in PostgreSQL mode for the "on conflict do nothing" inserts of photos and subgroups
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:sync;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false"
+})
+@Import({SyncService.class, BusinessDetailFetcher.class, PhotoStore.class, SubGroupTaxonomy.class, KnownTins.class,
+		SyncTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyncStatementsBenchmarkTest {
+
+	// Registers the shared subgroup codes and photos first, so every count is of a customer
+	// whose codes and photos are already stored, whichever test ran before
+	private static final String WARM_UP_TIN = "0098765400";
+
+	private static final int BATCHED_ROUND_TRIPS = 16;
+	private static final int BATCHED_WRITES = 15;
+	private static final int UNBATCHED_ROUND_TRIPS = 488;
+	private static final int UNBATCHED_WRITES = 487;
+
+	@Autowired
+	private SyncService syncService;
+
+	@Autowired
+	private FakeGovApiClient govApi;
+
+	@Autowired
+	private StatementCounter statements;
+
+	@Autowired
+	private SubGroupTaxonomy taxonomy;
+
+	@BeforeEach
+	void setUp() {
+		govApi.reset();
+	}
+
+	@Test
+	void newCustomerSyncIsWrittenInBatches() {
+		syncService.syncCustomerData(WARM_UP_TIN);
+		statements.reset();
+		syncService.syncCustomerData("0098765432");
+
+		assertEquals(BATCHED_ROUND_TRIPS, statements.roundTrips(),
+				BUSINESSES + " businesses x " + SUBGROUPS + " subgroups, round trips");
+		// Far fewer write round trips than the 40 + 400 + 40 + 3 rows they insert
+		assertEquals(BATCHED_WRITES, statements.writes(), "write round trips");
+	}
+
+	@Test
+	void unchangedRefreshWritesNothing() {
+		syncService.syncCustomerData("0011223344");
+
+		statements.reset();
+		syncService.refreshCustomerData("0011223344");
+
+		assertEquals(0, statements.writes(), "writes for an unchanged refresh");
+	}
+
+	@Test
+	void renamedSubGroupsWriteOnlyTheTaxonomy() {
+		syncService.syncCustomerData("0011223355");
+
+		// Descriptions live in the shared taxonomy, not on each business: one update per code
+		govApi.changedDescription = "Renamed group";
+		try {
+			statements.reset();
+			syncService.refreshCustomerData("0011223355");
+
+			assertEquals(SUBGROUPS, statements.writes(), "writes for renamed subgroups");
+			assertEquals("Renamed group", taxonomy.describe(1));
+
+			statements.reset();
+			syncService.refreshCustomerData("0011223355");
+			assertEquals(0, statements.writes(), "writes once the taxonomy has the new names");
+		} finally {
+			// The taxonomy is shared with the other tests: name the codes back
+			govApi.changedDescription = null;
+			syncService.refreshCustomerData("0011223355");
+		}
+		assertEquals("Group 1", taxonomy.describe(1));
+	}
+
+	@Test
+	void changedSubGroupWritesOnlyThatCode() {
+		syncService.syncCustomerData("0011223366");
+
+		govApi.changedCode = 99;
+		statements.reset();
+		syncService.refreshCustomerData("0011223366");
+
+		// The new code is added to the taxonomy, one code row is deleted and one inserted,
+		// and the license's version is bumped
+		assertEquals(4, statements.writes(), "writes for a one-subgroup change");
+	}
+
+	// The same sync with one statement per row: the baseline the batched figures are measured against
+	@Nested
+	@TestPropertySource(properties = {
+			"spring.datasource.url=jdbc:h2:mem:sync-unbatched;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+			"spring.jpa.properties.hibernate.jdbc.batch_size=1"
+	})
+	class Unbatched {
+
+		// This context's beans; the enclosing instance's fields belong to the batched one
+		@Autowired
+		private SyncService unbatchedSyncService;
+
+		@Autowired
+		private StatementCounter unbatchedStatements;
+
+		@Test
+		void newCustomerSyncIsWrittenRowByRow() {
+			unbatchedSyncService.syncCustomerData(WARM_UP_TIN);
+			unbatchedStatements.reset();
+			unbatchedSyncService.syncCustomerData("0098765433");
+
+			assertEquals(UNBATCHED_ROUND_TRIPS, unbatchedStatements.roundTrips(), "round trips without batching");
+			assertEquals(UNBATCHED_WRITES, unbatchedStatements.writes(), "write round trips without batching");
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package Dx_ET_Trade.ET_Trade.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.Executor;
+
+/**
+ * Beans shared by the sync tests: the fake government API, detail fetches
+ * run on the calling thread, and a data source that counts statements.
+ */
+@TestConfiguration
+class SyncTestConfig {
+
+	@Bean
+	MeterRegistry meterRegistry() {
+		return new SimpleMeterRegistry();
+	}
+
+	@Bean
+	Executor govApiExecutor() {
+		return Runnable::run;
+	}
+
+	@Bean
+	FakeGovApiClient govApiClient() {
+		return new FakeGovApiClient();
+	}
+
+	@Bean
+	static CountingDataSource countingDataSource() {
+		return new CountingDataSource();
+	}
+
+	@Bean
+	StatementCounter statementCounter(CountingDataSource countingDataSource) {
+		return countingDataSource.counter;
+	}
+
+	// Wraps the data source so every statement execution is counted
+	static class CountingDataSource implements BeanPostProcessor {
+
+		private final StatementCounter counter = new StatementCounter();
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return bean instanceof DataSource dataSource ? counting(dataSource) : bean;
+		}
+
+		private DataSource counting(DataSource dataSource) {
+			return proxy(DataSource.class, dataSource, (result, args) ->
+					result instanceof Connection connection ? proxy(Connection.class, connection, (inner, sql) ->
+							inner instanceof Statement statement ? countingStatement(statement, sql) : inner) : result);
+		}
+
+		// Prepared statements are counted as writes or sequence fetches by the SQL they were prepared with
+		private Object countingStatement(Statement statement, Object[] prepareArgs) {
+			String sql = prepareArgs != null && prepareArgs.length > 0 && prepareArgs[0] instanceof String s
+					? s.stripLeading().toLowerCase() : "";
+			boolean write = sql.startsWith("insert") || sql.startsWith("update") || sql.startsWith("delete");
+			boolean sequenceFetch = sql.contains("next value for") || sql.contains("nextval(");
+			Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+					: statement instanceof PreparedStatement ? PreparedStatement.class
+					: Statement.class;
+			return Proxy.newProxyInstance(SyncTestConfig.class.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+				if (method.getName().startsWith("execute")) {
+					counter.record(write, sequenceFetch);
+				}
+				return invoke(statement, method, args);
+			});
+		}
+	}
+
+	private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+		return type.cast(Proxy.newProxyInstance(SyncTestConfig.class.getClassLoader(), new Class<?>[]{type},
+				(p, method, args) -> mapper.map(invoke(target, method, args), args)));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private interface ResultMapper {
+		Object map(Object result, Object[] args);
+	}
+}
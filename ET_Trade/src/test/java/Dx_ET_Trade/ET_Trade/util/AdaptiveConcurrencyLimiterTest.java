@@ -0,0 +1,98 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long SLOW = Duration.ofSeconds(2).toNanos();
+	private static final long FAST = Duration.ofMillis(50).toNanos();
+
+	@Test
+	void rejectsCallsBeyondTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, SLOW);
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+
+		// A call that tells nothing about the remote side frees its slot without moving the limit
+		limiter.onIgnored();
+		assertTrue(limiter.tryAcquire());
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void growsByAboutOnePerLimitOfFastCallsWhileSaturated() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 0.5, SLOW);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+
+		// 4 -> 4.25 -> 4.49 -> 4.71 -> 4.92 -> 5.12
+		for (int i = 0; i < 4; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.onSuccess(FAST);
+		}
+		assertEquals(4, limiter.getLimit());
+
+		assertTrue(limiter.tryAcquire());
+		limiter.onSuccess(FAST);
+		assertEquals(5, limiter.getLimit());
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	void doesNotGrowWhileMostlyIdle() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 0.5, SLOW);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.onSuccess(FAST);
+		}
+		assertEquals(4, limiter.getLimit());
+	}
+
+	@Test
+	void neverGrowsBeyondTheMaximum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 3, 0.5, SLOW);
+
+		for (int i = 0; i < 100; i++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (; acquired > 0; acquired--) {
+				limiter.onSuccess(FAST);
+			}
+		}
+		assertEquals(3, limiter.getLimit());
+	}
+
+	@Test
+	void shrinksMultiplicativelyOnFailuresAndSlowCalls() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 2, 32, 0.5, SLOW);
+
+		assertTrue(limiter.tryAcquire());
+		limiter.onFailure();
+		assertEquals(8, limiter.getLimit());
+
+		assertTrue(limiter.tryAcquire());
+		limiter.onSuccess(SLOW + 1);
+		assertEquals(4, limiter.getLimit());
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.onFailure();
+		}
+		assertEquals(2, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+}
@@ -0,0 +1,35 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+	@Test
+	void addedValuesAreAlwaysFound() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add(String.format("%010d", i));
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain(String.format("%010d", i)));
+		}
+	}
+
+	@Test
+	void falsePositivesStayNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add(String.format("%010d", i));
+		}
+
+		int falsePositives = 0;
+		for (int i = 10_000; i < 110_000; i++) {
+			if (filter.mightContain(String.format("%010d", i))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+	}
+}
@@ -0,0 +1,51 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryTest {
+
+	private final OptimisticRetry retry = new OptimisticRetry(3, 0);
+
+	@Test
+	void retriesUntilTheWorkStopsConflicting() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		String result = retry.execute(() -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new OptimisticLockingFailureException("stale");
+			}
+			return "done";
+		});
+
+		assertEquals("done", result);
+		assertEquals(3, attempts.get());
+	}
+
+	@Test
+	void rethrowsOnceAttemptsAreUsedUp() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(OptimisticLockingFailureException.class, () -> retry.execute(() -> {
+			attempts.incrementAndGet();
+			throw new OptimisticLockingFailureException("stale");
+		}));
+		assertEquals(3, attempts.get());
+	}
+
+	@Test
+	void otherFailuresAreNotRetried() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(IllegalStateException.class, () -> retry.execute(() -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("broken");
+		}));
+		assertEquals(1, attempts.get());
+	}
+}
@@ -0,0 +1,75 @@
+package Dx_ET_Trade.ET_Trade.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		SingleFlight<String, Object> flights = new SingleFlight<>();
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Object result = new Object();
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			futures.add(pool.submit(() -> flights.execute("123", () -> {
+				executions.incrementAndGet();
+				started.countDown();
+				await(release);
+				return result;
+			})));
+			started.await(5, TimeUnit.SECONDS);
+			for (int i = 0; i < 7; i++) {
+				futures.add(pool.submit(() -> flights.execute("123", () -> {
+					executions.incrementAndGet();
+					return new Object();
+				})));
+			}
+			// Give the followers time to join the in-flight call
+			Thread.sleep(200);
+			release.countDown();
+
+			for (Future<Object> future : futures) {
+				assertSame(result, future.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, executions.get());
+			assertEquals(0, flights.inFlightCount());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void failureIsNotRemembered() {
+		SingleFlight<String, String> flights = new SingleFlight<>();
+
+		assertThrows(IllegalStateException.class, () -> flights.execute("123", () -> {
+			throw new IllegalStateException("gov api down");
+		}));
+		assertEquals("ok", flights.execute("123", () -> "ok"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}